@@ -0,0 +1,53 @@
+package com.melut.nomorebots.bench;
+
+import com.melut.nomorebots.verification.VerificationSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a wrong chat code in {@link VerificationSession#handleChatMessage}: the comparison,
+ * the metric and audit record, and the two rendered feedback messages.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ChatBenchmark {
+    private FakeProxy proxy;
+    private VerificationSession session;
+    private String wrongCode;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        proxy = FakeProxy.start(BenchmarkConfig.steadyState(), 2);
+        FakePlayer player = FakePlayer.numbered("chatter", 1);
+        session = new VerificationSession(player.player(), proxy.getPlugin());
+        // Codes come from an alphabet without '#', so this never matches
+        wrongCode = " " + session.getTargetCode() + "# ";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        session.cancelTimers();
+        proxy.close();
+    }
+
+    @Benchmark
+    public void wrongCode() {
+        session.handleChatMessage(wrongCode);
+    }
+}
@@ -0,0 +1,126 @@
+package com.melut.nomorebots.bench;
+
+import com.melut.nomorebots.database.DatabaseManager;
+import com.melut.nomorebots.database.PlayerData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Timestamp;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read and update throughput of {@link DatabaseManager} against a temporary SQLite file, plus
+ * read latency while a writer runs alongside. The {@code mixed} group is sampled, so the readers
+ * report p50/p99 behind the writer; compare {@code wal=true}, where reads use their own
+ * connections, with {@code wal=false}, where they queue on the writer's.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DatabaseBenchmark {
+    /** Cache weight per player row, see the cache section of config.yml. */
+    private static final int ROW_WEIGHT = 4;
+
+    @Param({"10000"})
+    public int players;
+
+    /** When false the cache only fits a tenth of the rows, so most reads go to SQLite. */
+    @Param({"true", "false"})
+    public boolean cacheFits;
+
+    /** database.sqlite.wal: split read connections, or everything on the one writer connection. */
+    @Param({"true", "false"})
+    public boolean wal;
+
+    private FakeProxy proxy;
+    private DatabaseManager database;
+    private UUID[] uuids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        java.util.Map<String, Object> overrides = BenchmarkConfig.steadyState();
+        overrides.put("database.type", "sqlite");
+        overrides.put("database.sqlite.wal", wal);
+        overrides.put("performance.cache.max-weight", cacheFits ? players * ROW_WEIGHT * 2 : players * ROW_WEIGHT / 10);
+        proxy = FakeProxy.start(overrides, 1);
+        database = proxy.getPlugin().getDatabaseManager();
+
+        uuids = new UUID[players];
+        for (int i = 0; i < players; i++) {
+            FakePlayer player = FakePlayer.numbered("db", i);
+            uuids[i] = player.getUniqueId();
+            database.createPlayerData(uuids[i], player.getUsername()).join();
+        }
+        // Let the write-behind queue settle before measuring
+        while (database.getPendingWriteCount() > 0) {
+            Thread.sleep(10);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        proxy.close();
+    }
+
+    private UUID randomPlayer() {
+        return uuids[ThreadLocalRandom.current().nextInt(uuids.length)];
+    }
+
+    @Benchmark
+    public Optional<PlayerData> read() {
+        return database.getPlayerData(randomPlayer()).join();
+    }
+
+    @Benchmark
+    public void update() {
+        update(randomPlayer());
+    }
+
+    private void update(UUID uuid) {
+        Optional<PlayerData> data = database.getPlayerData(uuid).join();
+        if (data.isPresent()) {
+            PlayerData player = data.get();
+            player.incrementSessionAttempts();
+            player.setLastIP("10.0.0." + (player.getSessionAttempts() & 0xFF));
+            player.setVerifiedUntil(new Timestamp(System.currentTimeMillis() + 60_000L));
+            database.updatePlayerData(player);
+        }
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Optional<PlayerData> mixedRead() {
+        return read();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void mixedUpdate() {
+        update();
+    }
+}
@@ -0,0 +1,61 @@
+package com.melut.nomorebots.bench;
+
+import com.melut.nomorebots.config.LanguageManager;
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** {@link LanguageManager#getMessage} for a constant message and one with a placeholder. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LanguageBenchmark {
+    @Param({"en", "tr"})
+    public String language;
+
+    private FakeProxy proxy;
+    private LanguageManager languageManager;
+    private Map<String, String> placeholders;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Map<String, Object> overrides = BenchmarkConfig.steadyState();
+        overrides.put("general.language", language);
+        proxy = FakeProxy.start(overrides, 1);
+        languageManager = proxy.getPlugin().getLanguageManager();
+        placeholders = Collections.singletonMap("code", "8K2");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        proxy.close();
+    }
+
+    @Benchmark
+    public Component constantMessage() {
+        return languageManager.getMessage("verification.chat-stage");
+    }
+
+    @Benchmark
+    public Component placeholderMessage() {
+        return languageManager.getMessage("verification.chat-instruction", placeholders);
+    }
+}
@@ -0,0 +1,63 @@
+package com.melut.nomorebots.bench;
+
+import com.melut.nomorebots.verification.VerificationSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-packet cost of {@link VerificationSession#handleMovement}: rotations that miss the current
+ * step (timer reset) and rotations that match it while the hold is still running.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MovementBenchmark {
+    private FakeProxy proxy;
+    private VerificationSession session;
+    private float yaw;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        proxy = FakeProxy.start(BenchmarkConfig.steadyState(), 2);
+        FakePlayer player = FakePlayer.numbered("mover", 1);
+        session = new VerificationSession(player.player(), proxy.getPlugin());
+        session.handleChatMessage(session.getTargetCode());
+        if (session.getCurrentStage() != VerificationSession.VerificationStage.MOVEMENT) {
+            throw new IllegalStateException("Session did not reach the movement stage");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        session.cancelTimers();
+        proxy.close();
+    }
+
+    @Benchmark
+    public void missingRotation() {
+        // Looking straight ahead while the first step asks for "up"
+        yaw = (yaw + 1.5f) % 360f;
+        session.handleMovement(0.5, 64.0, 0.5, yaw, 0.0f);
+    }
+
+    @Benchmark
+    public void matchingRotation() {
+        yaw = (yaw + 1.5f) % 360f;
+        session.handleMovement(0.5, 64.0, 0.5, yaw, -60.0f);
+    }
+}
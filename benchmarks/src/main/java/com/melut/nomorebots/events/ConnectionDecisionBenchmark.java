@@ -0,0 +1,98 @@
+package com.melut.nomorebots.events;
+
+import com.melut.nomorebots.bench.FakePlayer;
+import com.melut.nomorebots.bench.FakeProxy;
+import com.melut.nomorebots.config.ConfigSnapshot;
+import com.melut.nomorebots.database.DatabaseManager;
+import com.melut.nomorebots.database.PlayerData;
+import com.velocitypowered.api.proxy.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PlayerConnectionHandler#checkIfVerificationNeeded} for a returning player inside their
+ * cooldown and for one who has to verify again. Lives in the handler's package to reach the
+ * package-private method.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ConnectionDecisionBenchmark {
+    private FakeProxy proxy;
+    private PlayerConnectionHandler handler;
+    private ConfigSnapshot config;
+
+    private Player cooldownPlayer;
+    private Optional<PlayerData> cooldownData;
+    private String cooldownIP;
+
+    private Player newPlayer;
+    private Optional<PlayerData> newData;
+    private String newIP;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Map<String, Object> overrides = new LinkedHashMap<>();
+        overrides.put("bypass.ip-whitelist", Collections.emptyList());
+        overrides.put("verification.attempts.max-sessions", Integer.MAX_VALUE);
+        proxy = FakeProxy.start(overrides, 2);
+        handler = proxy.getListener(PlayerConnectionHandler.class);
+        config = proxy.getPlugin().getConfigManager().getSnapshot();
+        DatabaseManager database = proxy.getPlugin().getDatabaseManager();
+        // Cooldown checks go through the verified index once the startup scan finishes
+        while (!database.getVerifiedIndex().isLoaded()) {
+            Thread.sleep(10);
+        }
+
+        FakePlayer returning = FakePlayer.numbered("returning", 1);
+        cooldownPlayer = returning.player();
+        cooldownIP = returning.player().getRemoteAddress().getAddress().getHostAddress();
+        long until = System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1);
+        PlayerData verified = new PlayerData(returning.getUniqueId(), returning.getUsername(), true, 0, 0, null,
+                false, cooldownIP, new Timestamp(until));
+        database.getVerifiedIndex().record(verified);
+        cooldownData = Optional.of(verified);
+
+        FakePlayer fresh = FakePlayer.numbered("fresh", 2);
+        newPlayer = fresh.player();
+        newIP = fresh.player().getRemoteAddress().getAddress().getHostAddress();
+        newData = Optional.of(new PlayerData(fresh.getUniqueId(), fresh.getUsername(), false, 0, 0, null, false));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        proxy.close();
+    }
+
+    @Benchmark
+    public boolean cooldownHit() {
+        return handler.checkIfVerificationNeeded(config, cooldownPlayer, cooldownData, cooldownIP,
+                cooldownPlayer.getUsername());
+    }
+
+    @Benchmark
+    public boolean verificationRequired() {
+        // Bumps the session counter and queues a write-behind update, as a real join does
+        return handler.checkIfVerificationNeeded(config, newPlayer, newData, newIP, newPlayer.getUsername());
+    }
+}
@@ -1,23 +1,33 @@
 package com.melut.nomorebots;
 
 import com.google.inject.Inject;
+import com.melut.nomorebots.audit.AuditLog;
 import com.melut.nomorebots.config.ConfigManager;
 import com.melut.nomorebots.config.LanguageManager;
 import com.melut.nomorebots.database.DatabaseManager;
 import com.melut.nomorebots.verification.VerificationManager;
 import com.melut.nomorebots.limbo.LimboManager;
+import com.melut.nomorebots.monitoring.MetricsHttpServer;
+import com.melut.nomorebots.monitoring.PluginMetrics;
 import com.melut.nomorebots.commands.AdminCommands;
 import com.melut.nomorebots.events.PlayerConnectionHandler;
+import com.melut.nomorebots.security.AttackMode;
+import com.melut.nomorebots.security.CidrTrie;
+import com.melut.nomorebots.security.JoinRateLimiter;
+import com.melut.nomorebots.timer.TimingWheel;
 import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.api.event.proxy.ProxyInitializeEvent;
 import com.velocitypowered.api.event.proxy.ProxyShutdownEvent;
 import com.velocitypowered.api.plugin.Plugin;
 import com.velocitypowered.api.plugin.annotation.DataDirectory;
 import com.velocitypowered.api.proxy.ProxyServer;
+import com.velocitypowered.api.scheduler.ScheduledTask;
 import org.slf4j.Logger;
 import org.bstats.velocity.Metrics;
 
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 @Plugin(
     id = "nomorebots",
@@ -40,6 +50,14 @@ public class NoMoreBotsPlugin {
     private DatabaseManager databaseManager;
     private VerificationManager verificationManager;
     private LimboManager limboManager;
+    private volatile JoinRateLimiter joinRateLimiter;
+    private AttackMode attackMode;
+    private volatile CidrTrie bypassWhitelist = CidrTrie.empty();
+    private TimingWheel timingWheel;
+    private AuditLog auditLog;
+    private ScheduledTask timingWheelDriver;
+    private PluginMetrics pluginMetrics;
+    private MetricsHttpServer metricsServer;
     private Metrics metrics;
     private final Metrics.Factory metricsFactory;
 
@@ -59,6 +77,17 @@ public class NoMoreBotsPlugin {
         this.configManager = new ConfigManager(dataDirectory, logger);
         this.languageManager = new LanguageManager(dataDirectory, configManager.getLanguage(), logger);
 
+        // Verification attempt audit trail, written off-thread
+        this.auditLog = new AuditLog(logger, dataDirectory.resolve("logs"), configManager.isLogAttempts(),
+                configManager.getAuditBufferSize(), configManager.getAuditMaxFileBytes(), configManager.getAuditMaxFiles());
+
+        // Shared timer for session deadlines and limbo ticks, driven by a single repeating task
+        this.timingWheel = new TimingWheel(logger, 50, TimeUnit.MILLISECONDS, 512);
+        this.timingWheelDriver = server.getScheduler()
+                .buildTask(this, timingWheel::advance)
+                .repeat(Duration.ofMillis(50))
+                .schedule();
+
         // Database
         this.databaseManager = new DatabaseManager(configManager, logger, dataDirectory);
 
@@ -68,6 +97,29 @@ public class NoMoreBotsPlugin {
         this.limboManager = new LimboManager(this);
         this.verificationManager = new VerificationManager(this);
 
+        // IP / CIDR bypass whitelist
+        reloadBypassWhitelist();
+
+        // Join rate limiter (per IP and per subnet)
+        reloadJoinRateLimiter();
+
+        // Load shedding while joins arrive faster than the configured threshold
+        this.attackMode = new AttackMode(logger, configManager);
+        timingWheel.scheduleRepeating(attackMode::sample, 1, TimeUnit.SECONDS);
+
+        // Operational metrics, optionally served to Prometheus on localhost
+        this.pluginMetrics = new PluginMetrics(this);
+        if (configManager.isPrometheusEnabled()) {
+            MetricsHttpServer httpServer = new MetricsHttpServer(logger, pluginMetrics.getRegistry());
+            try {
+                httpServer.start(configManager.getPrometheusHost(), configManager.getPrometheusPort());
+                this.metricsServer = httpServer;
+            } catch (java.io.IOException e) {
+                logger.error("Could not start the Prometheus metrics endpoint", e);
+                httpServer.stop();
+            }
+        }
+
         // Events
         server.getEventManager().register(this, new PlayerConnectionHandler(this));
 
@@ -90,9 +142,44 @@ public class NoMoreBotsPlugin {
 
     @Subscribe
     public void onProxyShutdown(ProxyShutdownEvent event) {
+        if (timingWheelDriver != null) {
+            timingWheelDriver.cancel();
+        }
+        if (metricsServer != null) {
+            metricsServer.stop();
+        }
         if (databaseManager != null) {
             databaseManager.close();
         }
+        if (auditLog != null) {
+            auditLog.close();
+        }
+    }
+
+    /** Rebuilds the bypass whitelist from config and swaps it in atomically. */
+    public void reloadBypassWhitelist() {
+        CidrTrie trie = configManager.isBypassEnabled()
+                ? CidrTrie.parse(configManager.getBypassIPWhitelist(), logger)
+                : CidrTrie.empty();
+        this.bypassWhitelist = trie;
+        logger.info("Loaded " + trie.size() + " bypass whitelist range(s)");
+    }
+
+    /**
+     * Builds the join rate limiter from config and swaps it in. The counts carry over to the new
+     * one, the buckets start full.
+     */
+    public void reloadJoinRateLimiter() {
+        this.joinRateLimiter = new JoinRateLimiter(
+                configManager.getRateLimitStripes(),
+                configManager.getRateLimitCapacity("ip"), configManager.getRateLimitRefill("ip"),
+                configManager.getRateLimitCapacity("subnet"), configManager.getRateLimitRefill("subnet"),
+                configManager.getRateLimitIPv4Prefix(), configManager.getRateLimitIPv6Prefix(),
+                joinRateLimiter);
+    }
+
+    public boolean isWhitelisted(java.net.InetAddress address) {
+        return bypassWhitelist.contains(address);
     }
 
     // Getters
@@ -103,4 +190,9 @@ public class NoMoreBotsPlugin {
     public DatabaseManager getDatabaseManager() { return databaseManager; }
     public VerificationManager getVerificationManager() { return verificationManager; }
     public LimboManager getLimboManager() { return limboManager; }
+    public JoinRateLimiter getJoinRateLimiter() { return joinRateLimiter; }
+    public AttackMode getAttackMode() { return attackMode; }
+    public TimingWheel getTimingWheel() { return timingWheel; }
+    public AuditLog getAuditLog() { return auditLog; }
+    public PluginMetrics getPluginMetrics() { return pluginMetrics; }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.melut.nomorebots.audit;
+
+import java.util.Locale;
+
+/** Kinds of verification attempt records written to the audit log. */
+public enum AuditEvent {
+    RATE_LIMITED,
+    LOGIN_DENIED_TIMEOUT,
+    COOLDOWN_BYPASS,
+    VERIFICATION_REQUIRED,
+    SESSION_LIMIT,
+    LIMBO_FULL,
+    PACKET_FLOOD,
+    SESSION_STARTED,
+    CHAT_PASSED,
+    CHAT_FAILED,
+    MOVEMENT_STEP,
+    BEHAVIOR_FAILED,
+    BEHAVIOR_FAST_TRACK,
+    VERIFIED,
+    TIMED_OUT;
+
+    private final String jsonName = name().toLowerCase(Locale.ROOT);
+
+    /** Name as written to the NDJSON files. */
+    public String getJsonName() {
+        return jsonName;
+    }
+}
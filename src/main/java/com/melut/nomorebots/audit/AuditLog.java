@@ -0,0 +1,320 @@
+package com.melut.nomorebots.audit;
+
+import org.slf4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous audit trail of verification attempts.
+ *
+ * <p>Event and scheduler threads publish into a preallocated ring of records: a claim is one CAS
+ * and the record fields are plain writes, nothing is formatted or allocated on the caller. When
+ * the ring is full the record is dropped and counted rather than blocking the caller. A single
+ * daemon thread drains the ring into {@code audit.ndjson}, one JSON object per line, and rotates
+ * the file once it exceeds the configured size. Once the ring is empty the writer flushes what it
+ * wrote and parks until a publisher wakes it, so an idle or disabled log costs no CPU.</p>
+ */
+public class AuditLog {
+    private static final String FILE_NAME = "audit.ndjson";
+
+    private final Logger logger;
+    private final Path directory;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private volatile boolean enabled;
+
+    private final Record[] ring;
+    private final int mask;
+    // Sequence stored in a slot once its record is complete, -1 while never written
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+
+    private final Thread writerThread;
+    private volatile boolean running = true;
+    // Set by the writer before it parks; the publisher that clears it unparks the writer
+    private final AtomicBoolean writerParked = new AtomicBoolean();
+    private Writer out;
+    private long fileBytes;
+    private boolean unflushed;
+
+    public AuditLog(Logger logger, Path directory, boolean enabled, int bufferSize, long maxFileBytes, int maxFiles) {
+        this.logger = logger;
+        this.directory = directory;
+        this.enabled = enabled;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+
+        int capacity = Integer.highestOneBit(Math.max(64, bufferSize - 1) << 1);
+        this.ring = new Record[capacity];
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new Record();
+        }
+        this.mask = capacity - 1;
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1L);
+        }
+
+        this.writerThread = new Thread(this::drainLoop, "NoMoreBots-Audit");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (enabled) {
+            wakeWriter();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Publishes one record. Never blocks; when the writer has fallen a full ring behind the
+     * record is dropped.
+     */
+    public void record(AuditEvent event, UUID uuid, String username, InetAddress address, int detail) {
+        if (!enabled || !running) {
+            return;
+        }
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed >= ring.length) {
+                dropped.increment();
+                return;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        Record record = ring[(int) sequence & mask];
+        record.timestamp = System.currentTimeMillis();
+        record.event = event;
+        record.uuid = uuid;
+        record.username = username;
+        record.address = address;
+        record.detail = detail;
+        // A full volatile write, so it cannot be reordered with the read of writerParked below
+        published.set((int) sequence & mask, sequence);
+        wakeWriter();
+    }
+
+    private void wakeWriter() {
+        if (writerParked.get() && writerParked.compareAndSet(true, false)) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    private void drainLoop() {
+        StringBuilder line = new StringBuilder(256);
+        long next = 0;
+        while (true) {
+            int slot = (int) next & mask;
+            if (published.get(slot) == next) {
+                Record record = ring[slot];
+                format(record, line);
+                // Release the slot before the write so producers are not held up by disk I/O
+                record.clear();
+                consumed = next + 1;
+                next++;
+                append(line);
+                continue;
+            }
+
+            // Nothing pending: flush what was written and wait for the next publish
+            if (unflushed) {
+                flushQuietly();
+            }
+            if (!running && claimed.get() == next) {
+                break;
+            }
+            writerParked.set(true);
+            // Re-checked after announcing the park, so a record published in between is not missed
+            if (running && published.get(slot) != next) {
+                LockSupport.park(this);
+            }
+            writerParked.set(false);
+        }
+        closeWriter();
+    }
+
+    private void format(Record record, StringBuilder line) {
+        line.setLength(0);
+        line.append("{\"ts\":").append(record.timestamp)
+                .append(",\"event\":\"").append(record.event.getJsonName()).append('"');
+        if (record.uuid != null) {
+            line.append(",\"uuid\":\"").append(record.uuid).append('"');
+        }
+        if (record.username != null) {
+            line.append(",\"player\":\"");
+            escape(record.username, line);
+            line.append('"');
+        }
+        if (record.address != null) {
+            line.append(",\"ip\":\"").append(record.address.getHostAddress()).append('"');
+        }
+        line.append(",\"detail\":").append(record.detail).append("}\n");
+    }
+
+    private static void escape(String value, StringBuilder out) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+    }
+
+    private void append(CharSequence line) {
+        try {
+            if (out == null) {
+                openWriter();
+            } else if (fileBytes >= maxFileBytes) {
+                rotate();
+            }
+            out.append(line);
+            // Records are ASCII apart from unusual names, close enough for rotation
+            fileBytes += line.length();
+            unflushed = true;
+            written.increment();
+        } catch (IOException e) {
+            logger.error("Could not write audit log record", e);
+            closeWriter();
+        }
+    }
+
+    private void openWriter() throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(FILE_NAME);
+        fileBytes = Files.exists(file) ? Files.size(file) : 0L;
+        out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    private void rotate() throws IOException {
+        closeWriter();
+        Path current = directory.resolve(FILE_NAME);
+        // Named by rotation time, bumped if two rotations land in the same millisecond
+        long stamp = System.currentTimeMillis();
+        Path rotated;
+        do {
+            rotated = directory.resolve("audit-" + stamp++ + ".ndjson");
+        } while (Files.exists(rotated));
+        Files.move(current, rotated);
+        pruneRotated();
+        openWriter();
+    }
+
+    // Keeps the newest maxFiles rotated files
+    private void pruneRotated() throws IOException {
+        List<Path> rotated = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "audit-*.ndjson")) {
+            for (Path file : files) {
+                rotated.add(file);
+            }
+        }
+        if (rotated.size() <= maxFiles) {
+            return;
+        }
+        Collections.sort(rotated);
+        for (int i = 0; i < rotated.size() - maxFiles; i++) {
+            Files.deleteIfExists(rotated.get(i));
+        }
+    }
+
+    private void flushQuietly() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.flush();
+            unflushed = false;
+        } catch (IOException e) {
+            logger.error("Could not flush audit log", e);
+            closeWriter();
+        }
+    }
+
+    private void closeWriter() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            logger.warn("Could not close audit log", e);
+        }
+        out = null;
+    }
+
+    /** Stops accepting records, drains what was published and closes the file. */
+    public void close() {
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long lost = dropped.sum();
+        if (lost > 0) {
+            logger.warn("Audit log dropped " + lost + " record(s) because the buffer was full");
+        }
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public int getPendingCount() {
+        return (int) Math.max(0, claimed.get() - consumed);
+    }
+
+    // Preallocated, reused slot; fields are published by the slot's sequence write
+    private static final class Record {
+        long timestamp;
+        AuditEvent event;
+        UUID uuid;
+        String username;
+        InetAddress address;
+        int detail;
+
+        void clear() {
+            event = null;
+            uuid = null;
+            username = null;
+            address = null;
+        }
+    }
+}
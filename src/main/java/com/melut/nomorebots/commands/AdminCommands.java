@@ -2,6 +2,9 @@ package com.melut.nomorebots.commands;
 
 import com.melut.nomorebots.NoMoreBotsPlugin;
 import com.melut.nomorebots.database.PlayerData;
+import com.melut.nomorebots.limbo.LimboManager;
+import com.melut.nomorebots.monitoring.PluginMetrics;
+import com.melut.nomorebots.security.AttackMode;
 import com.velocitypowered.api.command.CommandSource;
 import com.velocitypowered.api.command.SimpleCommand;
 import com.velocitypowered.api.proxy.Player;
@@ -37,9 +40,10 @@ public class AdminCommands implements SimpleCommand {
         switch (subCommand) {
             case "reload":
                 plugin.getConfigManager().loadConfig();
-                // We should also reload language manager usually, but let's assume config manager handles file reload
-                // Actually LanguageManager needs to be re-instantiated or have a reload method.
-                // For simplicity, we just reload main config message.
+                plugin.reloadBypassWhitelist();
+                plugin.reloadJoinRateLimiter();
+                plugin.getLanguageManager().reload(plugin.getConfigManager().getLanguage());
+                plugin.getAuditLog().setEnabled(plugin.getConfigManager().isLogAttempts());
                 source.sendMessage(plugin.getLanguageManager().getMessage("admin.reload-success"));
                 break;
             case "verify":
@@ -70,8 +74,8 @@ public class AdminCommands implements SimpleCommand {
                 }
                 handleBypass(source, args[1]);
                 break;
-            case "stats": // TODO: Implement stats
-                source.sendMessage(Component.text("Stats not implemented yet."));
+            case "stats":
+                handleStats(source);
                 break;
             default:
                 source.sendMessage(plugin.getLanguageManager().getMessage("errors.unknown-command"));
@@ -86,6 +90,43 @@ public class AdminCommands implements SimpleCommand {
         source.sendMessage(Component.text("§e/nmb reset <player> §7- Reset player data"));
         source.sendMessage(Component.text("§e/nmb timeout <player> <seconds> §7- Timeout player"));
         source.sendMessage(Component.text("§e/nmb bypass <player> §7- Toggle bypass"));
+        source.sendMessage(Component.text("§e/nmb stats §7- Show statistics"));
+    }
+
+    private void handleStats(CommandSource source) {
+        PluginMetrics metrics = plugin.getPluginMetrics();
+        LimboManager limbo = plugin.getLimboManager();
+        // Live numbers come from memory, row totals need one query off the command thread
+        plugin.getDatabaseManager().getPlayerCounts().whenComplete((counts, throwable) -> {
+            source.sendMessage(plugin.getLanguageManager().getMessage("stats.header"));
+            if (counts != null) {
+                source.sendMessage(plugin.getLanguageManager().getMessage("stats.total-players",
+                        Collections.singletonMap("count", String.valueOf(counts.getTotal()))));
+                source.sendMessage(plugin.getLanguageManager().getMessage("stats.verified-players",
+                        Collections.singletonMap("count", String.valueOf(counts.getVerified()))));
+                source.sendMessage(plugin.getLanguageManager().getMessage("stats.timeout-players",
+                        Collections.singletonMap("count", String.valueOf(counts.getTimedOut()))));
+            }
+            source.sendMessage(plugin.getLanguageManager().getMessage("stats.active-sessions",
+                    Collections.singletonMap("count", String.valueOf(plugin.getVerificationManager().getSessionCount()))));
+
+            Map<String, String> limboPlaceholders = new HashMap<>();
+            limboPlaceholders.put("count", String.valueOf(limbo.getTotalOccupancy()));
+            limboPlaceholders.put("capacity", String.valueOf(limbo.getShardCount() * limbo.getShardCapacity()));
+            source.sendMessage(plugin.getLanguageManager().getMessage("stats.limbo-players", limboPlaceholders));
+
+            Map<String, String> joinPlaceholders = new HashMap<>();
+            joinPlaceholders.put("verify", String.valueOf(metrics.joinVerify.get()));
+            joinPlaceholders.put("cooldown", String.valueOf(metrics.joinCooldown.get()));
+            joinPlaceholders.put("rejected", String.valueOf(metrics.joinRateLimited.get()
+                    + metrics.joinTimedOut.get() + metrics.limboRejected.get()));
+            source.sendMessage(plugin.getLanguageManager().getMessage("stats.join-decisions", joinPlaceholders));
+
+            AttackMode attackMode = plugin.getAttackMode();
+            source.sendMessage(plugin.getLanguageManager().getMessage(
+                    attackMode.isActive() ? "stats.attack-mode-on" : "stats.attack-mode-off",
+                    Collections.singletonMap("rate", String.valueOf(Math.round(attackMode.getJoinRate())))));
+        });
     }
 
     private void handleVerify(CommandSource source, String playerName) {
@@ -146,11 +187,15 @@ public class AdminCommands implements SimpleCommand {
 
         try {
             int seconds = Integer.parseInt(secondsStr);
-            UUID uuid = target.get().getUniqueId();
+            Player player = target.get();
+            UUID uuid = player.getUniqueId();
+            long timeoutMillis = System.currentTimeMillis() + (seconds * 1000L);
+            plugin.getDatabaseManager().getDenyIndex().deny(player.getUsername(),
+                    player.getRemoteAddress().getAddress().getHostAddress(), timeoutMillis);
             plugin.getDatabaseManager().getPlayerData(uuid).thenAccept(optData -> {
                 if (optData.isPresent()) {
                     PlayerData data = optData.get();
-                    data.setTimeoutUntil(new Timestamp(System.currentTimeMillis() + (seconds * 1000L)));
+                    data.setTimeoutUntil(new Timestamp(timeoutMillis));
                     plugin.getDatabaseManager().updatePlayerData(data);
                     
                     Map<String, String> placeholders = new HashMap<>();
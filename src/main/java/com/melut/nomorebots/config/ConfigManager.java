@@ -2,7 +2,6 @@ package com.melut.nomorebots.config;
 
 import org.slf4j.Logger;
 import org.spongepowered.configurate.CommentedConfigurationNode;
-import org.spongepowered.configurate.serialize.SerializationException;
 import org.spongepowered.configurate.yaml.YamlConfigurationLoader;
 
 import java.io.IOException;
@@ -14,13 +13,20 @@ import java.util.List;
 public class ConfigManager {
     private final Path dataDirectory;
     private final Logger logger;
-    private CommentedConfigurationNode rootNode;
+    private volatile CommentedConfigurationNode rootNode;
+    // Replaced as a whole on reload, readers never see a partially applied config
+    private volatile ConfigSnapshot snapshot;
     private final String fileName = "config.yml";
 
     public ConfigManager(Path dataDirectory, Logger logger) {
         this.dataDirectory = dataDirectory;
         this.logger = logger;
         loadConfig();
+        if (snapshot == null) {
+            // Nothing could be read, fall back to the built-in defaults
+            rootNode = CommentedConfigurationNode.root();
+            snapshot = new ConfigSnapshot(rootNode, logger);
+        }
     }
 
     public void loadConfig() {
@@ -41,80 +47,192 @@ public class ConfigManager {
             YamlConfigurationLoader loader = YamlConfigurationLoader.builder()
                     .path(configPath)
                     .build();
-            rootNode = loader.load();
-        } catch (IOException e) {
-            logger.error("Could not load config.yml", e);
+            CommentedConfigurationNode loaded = loader.load();
+            ConfigSnapshot compiled = new ConfigSnapshot(loaded, logger);
+            rootNode = loaded;
+            snapshot = compiled;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not load config.yml" + (snapshot != null ? ", keeping the previous configuration" : ""), e);
         }
     }
 
+    /**
+     * The current configuration. Hot paths should read this once and use its fields, rather
+     * than calling several getters that may straddle a reload.
+     */
+    public ConfigSnapshot getSnapshot() {
+        return snapshot;
+    }
+
     public String getLanguage() {
-        return rootNode.node("general", "language").getString("tr");
+        return snapshot.language;
     }
     
     public boolean isDebug() {
-        return rootNode.node("general", "debug").getBoolean(false);
+        return snapshot.debug;
     }
     
     public String getDatabaseType() {
-        return rootNode.node("database", "type").getString("sqlite");
+        return snapshot.databaseType;
     }
     
     public String getSQLiteFile() {
-        return rootNode.node("database", "sqlite", "file").getString("nomorebots.db");
+        return snapshot.sqliteFile;
+    }
+
+    // Write-behind persistence
+    public int getWriteBatchSize() {
+        return snapshot.writeBatchSize;
+    }
+
+    public long getWriteFlushInterval() {
+        return snapshot.writeFlushInterval;
+    }
+
+    public String getMySQLHost() {
+        return snapshot.mysqlHost;
+    }
+
+    public int getMySQLPort() {
+        return snapshot.mysqlPort;
+    }
+
+    public String getMySQLDatabase() {
+        return snapshot.mysqlDatabase;
+    }
+
+    public String getMySQLUsername() {
+        return snapshot.mysqlUsername;
+    }
+
+    public String getMySQLPassword() {
+        return snapshot.mysqlPassword;
+    }
+
+    public int getMySQLPoolSize() {
+        return snapshot.mysqlPoolSize;
+    }
+
+    public boolean isSQLiteWAL() {
+        return snapshot.sqliteWAL;
+    }
+
+    public String getSQLiteSynchronous() {
+        return snapshot.sqliteSynchronous;
+    }
+
+    public int getSQLiteBusyTimeout() {
+        return snapshot.sqliteBusyTimeout;
+    }
+
+    public int getSQLiteReadConnections() {
+        return snapshot.sqliteReadConnections;
+    }
+
+    // Player data cache
+    public long getCacheMaxWeight() {
+        return snapshot.cacheMaxWeight;
+    }
+
+    public long getCacheTtl() {
+        return snapshot.cacheTtl;
+    }
+
+    public long getCacheNegativeTtl() {
+        return snapshot.cacheNegativeTtl;
+    }
+
+    // Index snapshot for warm restarts
+    public boolean isSnapshotEnabled() {
+        return snapshot.snapshotEnabled;
+    }
+
+    public String getSnapshotFile() {
+        return snapshot.snapshotFile;
+    }
+
+    public long getSnapshotInterval() {
+        return snapshot.snapshotInterval;
+    }
+
+    // Retention of inactive rows
+    public long getCleanupInterval() {
+        return snapshot.cleanupInterval;
+    }
+
+    public int getRetentionDays() {
+        return snapshot.retentionDays;
+    }
+
+    public int getRetentionBatchSize() {
+        return snapshot.retentionBatchSize;
     }
 
     // Limbo settings
     public String getLimboHost() {
-        return rootNode.node("limbo", "host").getString("127.0.0.1");
+        return snapshot.limboHost;
     }
 
     public int getLimboPort() {
-        return rootNode.node("limbo", "port").getInt(25566);
+        return snapshot.limboPort;
+    }
+    
+    public int getLimboMaxPlayers() {
+        return snapshot.limboMaxPlayers;
+    }
+
+    public int getLimboPlayersPerShard() {
+        return snapshot.limboPlayersPerShard;
     }
     
     public String getLimboBrand() {
-        return rootNode.node("limbo", "brand-name").getString("&6NoMoreBots &7Verification");
+        return snapshot.limboBrand;
     }
 
     // Verification settings - Chat + Movement Hybrid
     public int getCodeLength() {
-        return rootNode.node("verification", "code", "length").getInt(3);
+        return snapshot.codeLength;
     }
     
     public String getCodeCharacters() {
-        return rootNode.node("verification", "code", "characters").getString("ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789");
+        return snapshot.codeCharacters;
     }
     
     public boolean isCodeCaseSensitive() {
-        return rootNode.node("verification", "code", "case-sensitive").getBoolean(false);
+        return snapshot.codeCaseSensitive;
     }
     
     // New multi-direction movement settings
     public List<String> getMovementDirections() {
-        try {
-            return rootNode.node("verification", "movement", "directions").getList(String.class,
-                java.util.Arrays.asList("up:2", "left:2"));
-        } catch (SerializationException e) {
-            logger.warn("Could not deserialize movement directions, using default values", e);
-            return java.util.Arrays.asList("up:2", "left:2");
-        }
+        return snapshot.movementDirections;
     }
     
     public double getMovementTolerance() {
-        return rootNode.node("verification", "movement", "tolerance").getDouble(15.0);
+        return snapshot.movementTolerance;
     }
     
     public int getResponseTimeout() {
-        return rootNode.node("verification", "movement", "response-timeout").getInt(20);
+        return snapshot.responseTimeout;
     }
     
     public boolean isKickOnTimeout() {
-        return rootNode.node("verification", "movement", "kick-on-timeout").getBoolean(true);
+        return snapshot.kickOnTimeout;
     }
     
     // Direction angle settings
     public double getDirectionAngle(String direction, String type) {
-        return rootNode.node("verification", "movement", "angles", direction, type).getDouble(0.0);
+        ConfigSnapshot config = snapshot;
+        switch (direction + ":" + type) {
+            case "up:pitch-min": return config.upPitchMin;
+            case "up:pitch-max": return config.upPitchMax;
+            case "down:pitch-min": return config.downPitchMin;
+            case "down:pitch-max": return config.downPitchMax;
+            case "left:yaw-min": return config.leftYawMin;
+            case "left:yaw-max": return config.leftYawMax;
+            case "right:yaw-min": return config.rightYawMin;
+            case "right:yaw-max": return config.rightYawMax;
+            default: return rootNode.node("verification", "movement", "angles", direction, type).getDouble(0.0);
+        }
     }
     
     // Legacy methods for backward compatibility
@@ -135,36 +253,108 @@ public class ConfigManager {
     }
 
     public int getMaxAttempts() {
-        return rootNode.node("verification", "attempts", "max-attempts").getInt(3);
+        return snapshot.maxAttempts;
     }
     
     public int getMaxSessions() {
-        return rootNode.node("verification", "attempts", "max-sessions").getInt(3);
+        return snapshot.maxSessions;
     }
     
     public int getTimeoutDuration() {
-        return rootNode.node("verification", "timeout", "duration").getInt(600);
+        return snapshot.timeoutDuration;
     }
     
     public String getTargetServer() {
-        return rootNode.node("verification", "success", "target-server").getString("lobby");
+        return snapshot.targetServer;
     }
     
     public String getBypassPermission() {
-        return rootNode.node("bypass", "permission").getString("nomorebots.bypass");
+        return snapshot.bypassPermission;
+    }
+
+    public boolean isBypassEnabled() {
+        return snapshot.bypassEnabled;
+    }
+
+    public List<String> getBypassIPWhitelist() {
+        return snapshot.bypassIPWhitelist;
     }
     
     // Cooldown system settings
     public boolean isTrackByUser() {
-        return rootNode.node("verification", "cooldown", "track-by-user").getBoolean(true);
+        return snapshot.trackByUser;
     }
     
     public boolean isTrackByIP() {
-        return rootNode.node("verification", "cooldown", "track-by-ip").getBoolean(true);
+        return snapshot.trackByIP;
     }
     
     public int getCooldownDuration() {
-        return rootNode.node("verification", "cooldown", "duration").getInt(86400);
+        return snapshot.cooldownDuration;
+    }
+
+    // Audit log settings
+    public boolean isLogAttempts() {
+        return snapshot.logAttempts;
+    }
+
+    public int getAuditBufferSize() {
+        return snapshot.auditBufferSize;
+    }
+
+    public long getAuditMaxFileBytes() {
+        return snapshot.auditMaxFileBytes;
+    }
+
+    public int getAuditMaxFiles() {
+        return snapshot.auditMaxFiles;
+    }
+
+    // Monitoring settings
+    public boolean isPrometheusEnabled() {
+        return snapshot.prometheusEnabled;
+    }
+
+    public String getPrometheusHost() {
+        return snapshot.prometheusHost;
+    }
+
+    public int getPrometheusPort() {
+        return snapshot.prometheusPort;
+    }
+
+    // Join rate limiter settings
+    public boolean isRateLimitEnabled() {
+        return snapshot.rateLimitEnabled;
+    }
+
+    public int getRateLimitStripes() {
+        return snapshot.rateLimitStripes;
+    }
+
+    public int getRateLimitIPv4Prefix() {
+        return snapshot.rateLimitIPv4Prefix;
+    }
+
+    public int getRateLimitIPv6Prefix() {
+        return snapshot.rateLimitIPv6Prefix;
+    }
+
+    public int getRateLimitCapacity(String bucket) {
+        return "ip".equals(bucket) ? snapshot.rateLimitIPCapacity : snapshot.rateLimitSubnetCapacity;
+    }
+
+    public double getRateLimitRefill(String bucket) {
+        return "ip".equals(bucket) ? snapshot.rateLimitIPRefill : snapshot.rateLimitSubnetRefill;
+    }
+
+    // Attack mode settings
+    public boolean isAttackModeEnabled() {
+        return snapshot.attackModeEnabled;
+    }
+
+    public int getAttackModeLimboCap() {
+        return snapshot.attackModeLimboCap;
     }
 
     public CommentedConfigurationNode getRoot() {
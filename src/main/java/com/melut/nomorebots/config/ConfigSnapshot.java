@@ -0,0 +1,334 @@
+package com.melut.nomorebots.config;
+
+import com.melut.nomorebots.verification.MovementChallenge;
+import org.slf4j.Logger;
+import org.spongepowered.configurate.CommentedConfigurationNode;
+import org.spongepowered.configurate.serialize.SerializationException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Immutable, validated copy of config.yml. Built once per load and published by
+ * {@link ConfigManager} through a single volatile reference, so hot paths read plain final
+ * fields and a reload can never be observed half-applied.
+ */
+public final class ConfigSnapshot {
+    private static final List<String> DEFAULT_DIRECTIONS = Collections.unmodifiableList(Arrays.asList("up:2", "left:2"));
+    private static final List<String> KNOWN_DIRECTIONS = Arrays.asList("up", "down", "left", "right");
+
+    // General
+    public final String language;
+    public final boolean debug;
+
+    // Database
+    public final String databaseType;
+    public final String sqliteFile;
+    public final boolean sqliteWAL;
+    public final String sqliteSynchronous;
+    public final int sqliteBusyTimeout;
+    public final int sqliteReadConnections;
+    public final String mysqlHost;
+    public final int mysqlPort;
+    public final String mysqlDatabase;
+    public final String mysqlUsername;
+    public final String mysqlPassword;
+    public final int mysqlPoolSize;
+
+    // Performance
+    public final int writeBatchSize;
+    public final long writeFlushInterval;
+    public final long cacheMaxWeight;
+    public final long cacheTtl;
+    public final long cacheNegativeTtl;
+    public final boolean snapshotEnabled;
+    public final String snapshotFile;
+    public final long snapshotInterval;
+    public final long cleanupInterval;
+    public final int retentionDays;
+    public final int retentionBatchSize;
+
+    // Limbo
+    public final String limboHost;
+    public final int limboPort;
+    public final int limboMaxPlayers;
+    public final int limboPlayersPerShard;
+    public final String limboBrand;
+    public final int limboPacketsPerSecond;
+    public final int limboPacketBurst;
+
+    // Verification - chat code
+    public final int codeLength;
+    public final String codeCharacters;
+    public final boolean codeCaseSensitive;
+
+    // Verification - movement
+    public final List<String> movementDirections;
+    public final double movementTolerance;
+    public final int responseTimeout;
+    public final boolean kickOnTimeout;
+    public final double upPitchMin;
+    public final double upPitchMax;
+    public final double downPitchMin;
+    public final double downPitchMax;
+    public final double leftYawMin;
+    public final double leftYawMax;
+    public final double rightYawMin;
+    public final double rightYawMax;
+    // Directions and angles above, compiled into the shared per-packet form
+    public final MovementChallenge movementChallenge;
+    public final boolean behaviorAnalysisEnabled;
+    public final int behaviorMinSamples;
+    public final double behaviorFailScore;
+    public final double behaviorPassScore;
+
+    // Verification - attempts, timeout, cooldown
+    public final int maxAttempts;
+    public final int maxSessions;
+    public final int timeoutDuration;
+    public final String targetServer;
+    public final boolean trackByUser;
+    public final boolean trackByIP;
+    public final int cooldownDuration;
+
+    // Bypass
+    public final String bypassPermission;
+    public final boolean bypassEnabled;
+    public final List<String> bypassIPWhitelist;
+
+    // Audit log
+    public final boolean logAttempts;
+    public final int auditBufferSize;
+    public final long auditMaxFileBytes;
+    public final int auditMaxFiles;
+
+    // Monitoring
+    public final boolean prometheusEnabled;
+    public final String prometheusHost;
+    public final int prometheusPort;
+
+    // Join rate limiter
+    public final boolean rateLimitEnabled;
+    public final int rateLimitStripes;
+    public final int rateLimitIPv4Prefix;
+    public final int rateLimitIPv6Prefix;
+    public final int rateLimitIPCapacity;
+    public final double rateLimitIPRefill;
+    public final int rateLimitSubnetCapacity;
+    public final double rateLimitSubnetRefill;
+
+    // Attack mode
+    public final boolean attackModeEnabled;
+    public final int attackModeEnterRate;
+    public final int attackModeExitRate;
+    public final int attackModeExitDelay;
+    public final int attackModeLimboCap;
+
+    // Pre-login deny of timed-out players
+    public final boolean preLoginDenyEnabled;
+    public final boolean preLoginDenyByIP;
+
+    ConfigSnapshot(CommentedConfigurationNode root, Logger logger) {
+        Validator check = new Validator(logger);
+
+        language = root.node("general", "language").getString("tr");
+        debug = root.node("general", "debug").getBoolean(false);
+
+        databaseType = root.node("database", "type").getString("sqlite").toLowerCase(Locale.ROOT);
+        sqliteFile = root.node("database", "sqlite", "file").getString("nomorebots.db");
+        sqliteWAL = root.node("database", "sqlite", "wal").getBoolean(true);
+        String synchronous = root.node("database", "sqlite", "synchronous").getString("NORMAL").toUpperCase(Locale.ROOT);
+        if (!synchronous.equals("OFF") && !synchronous.equals("NORMAL") && !synchronous.equals("FULL")) {
+            logger.warn("Unknown database.sqlite.synchronous value {}, using NORMAL", synchronous);
+            synchronous = "NORMAL";
+        }
+        sqliteSynchronous = synchronous;
+        sqliteBusyTimeout = check.atLeast("database.sqlite.busy-timeout", root.node("database", "sqlite", "busy-timeout").getInt(5000), 0, 5000);
+        sqliteReadConnections = check.atLeast("database.sqlite.read-connections", root.node("database", "sqlite", "read-connections").getInt(4), 1, 4);
+        mysqlHost = root.node("database", "mysql", "host").getString("localhost");
+        mysqlPort = root.node("database", "mysql", "port").getInt(3306);
+        mysqlDatabase = root.node("database", "mysql", "database").getString("nomorebots");
+        mysqlUsername = root.node("database", "mysql", "username").getString("root");
+        mysqlPassword = root.node("database", "mysql", "password").getString("");
+        mysqlPoolSize = check.atLeast("database.mysql.connection-pool-size", root.node("database", "mysql", "connection-pool-size").getInt(5), 2, 5);
+
+        writeBatchSize = check.atLeast("performance.write-behind.batch-size", root.node("performance", "write-behind", "batch-size").getInt(200), 1, 200);
+        writeFlushInterval = check.atLeast("performance.write-behind.flush-interval", root.node("performance", "write-behind", "flush-interval").getLong(500), 10, 500);
+        cacheMaxWeight = check.atLeast("performance.cache.max-weight", root.node("performance", "cache", "max-weight").getLong(40000), 64, 40000);
+        cacheTtl = check.atLeast("performance.cache.ttl", root.node("performance", "cache", "ttl").getLong(900), 1, 900);
+        cacheNegativeTtl = check.atLeast("performance.cache.negative-ttl", root.node("performance", "cache", "negative-ttl").getLong(30), 0, 30);
+        snapshotEnabled = root.node("performance", "snapshot", "enabled").getBoolean(true);
+        snapshotFile = root.node("performance", "snapshot", "file").getString("state.bin");
+        snapshotInterval = check.atLeast("performance.snapshot.interval", root.node("performance", "snapshot", "interval").getLong(60), 5, 60);
+        cleanupInterval = check.atLeast("performance.cleanup-interval", root.node("performance", "cleanup-interval").getLong(3600), 60, 3600);
+        retentionDays = check.atLeast("performance.retention.days", root.node("performance", "retention", "days").getInt(30), 0, 30);
+        retentionBatchSize = check.between("performance.retention.batch-size", root.node("performance", "retention", "batch-size").getInt(500), 1, 10000, 500);
+
+        limboHost = root.node("limbo", "host").getString("127.0.0.1");
+        limboPort = root.node("limbo", "port").getInt(25566);
+        limboMaxPlayers = check.atLeast("limbo.max-players", root.node("limbo", "max-players").getInt(100), 1, 100);
+        limboPlayersPerShard = check.atLeast("limbo.players-per-shard", root.node("limbo", "players-per-shard").getInt(25), 1, 25);
+        limboBrand = root.node("limbo", "brand-name").getString("&6NoMoreBots &7Verification");
+        limboPacketsPerSecond = check.atLeast("limbo.packet-budget.per-second", root.node("limbo", "packet-budget", "per-second").getInt(60), 1, 60);
+        limboPacketBurst = check.atLeast("limbo.packet-budget.burst", root.node("limbo", "packet-budget", "burst").getInt(120), 1, 120);
+
+        codeLength = check.atLeast("verification.code.length", root.node("verification", "code", "length").getInt(3), 1, 3);
+        String characters = root.node("verification", "code", "characters").getString("ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789");
+        if (characters.isEmpty()) {
+            logger.warn("verification.code.characters is empty, using the default alphabet");
+            characters = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+        }
+        codeCharacters = characters;
+        codeCaseSensitive = root.node("verification", "code", "case-sensitive").getBoolean(false);
+
+        movementDirections = readDirections(root, logger);
+        movementTolerance = root.node("verification", "movement", "tolerance").getDouble(15.0);
+        responseTimeout = check.atLeast("verification.movement.response-timeout", root.node("verification", "movement", "response-timeout").getInt(20), 1, 20);
+        kickOnTimeout = root.node("verification", "movement", "kick-on-timeout").getBoolean(true);
+        CommentedConfigurationNode angles = root.node("verification", "movement", "angles");
+        upPitchMin = angles.node("up", "pitch-min").getDouble(0.0);
+        upPitchMax = angles.node("up", "pitch-max").getDouble(0.0);
+        downPitchMin = angles.node("down", "pitch-min").getDouble(0.0);
+        downPitchMax = angles.node("down", "pitch-max").getDouble(0.0);
+        leftYawMin = angles.node("left", "yaw-min").getDouble(0.0);
+        leftYawMax = angles.node("left", "yaw-max").getDouble(0.0);
+        rightYawMin = angles.node("right", "yaw-min").getDouble(0.0);
+        rightYawMax = angles.node("right", "yaw-max").getDouble(0.0);
+        check.range("up", "pitch", upPitchMin, upPitchMax);
+        check.range("down", "pitch", downPitchMin, downPitchMax);
+        check.range("left", "yaw", leftYawMin, leftYawMax);
+        check.range("right", "yaw", rightYawMin, rightYawMax);
+        movementChallenge = MovementChallenge.compile(this);
+        CommentedConfigurationNode behavior = root.node("verification", "movement", "behavior-analysis");
+        behaviorAnalysisEnabled = behavior.node("enabled").getBoolean(false);
+        behaviorMinSamples = check.between("verification.movement.behavior-analysis.min-samples", behavior.node("min-samples").getInt(40), 8, 64, 40);
+        behaviorFailScore = check.between("verification.movement.behavior-analysis.fail-score", behavior.node("fail-score").getDouble(0.8), 0.0, 1.0, 0.8);
+        behaviorPassScore = check.between("verification.movement.behavior-analysis.pass-score", behavior.node("pass-score").getDouble(-0.5), -1.0, 0.0, -0.5);
+
+        maxAttempts = check.atLeast("verification.attempts.max-attempts", root.node("verification", "attempts", "max-attempts").getInt(3), 1, 3);
+        maxSessions = check.atLeast("verification.attempts.max-sessions", root.node("verification", "attempts", "max-sessions").getInt(3), 1, 3);
+        timeoutDuration = check.atLeast("verification.timeout.duration", root.node("verification", "timeout", "duration").getInt(600), 0, 600);
+        targetServer = root.node("verification", "success", "target-server").getString("lobby");
+        trackByUser = root.node("verification", "cooldown", "track-by-user").getBoolean(true);
+        trackByIP = root.node("verification", "cooldown", "track-by-ip").getBoolean(true);
+        cooldownDuration = check.atLeast("verification.cooldown.duration", root.node("verification", "cooldown", "duration").getInt(86400), 0, 86400);
+
+        bypassPermission = root.node("bypass", "permission").getString("nomorebots.bypass");
+        bypassEnabled = root.node("bypass", "enabled").getBoolean(true);
+        bypassIPWhitelist = readList(root.node("bypass", "ip-whitelist"), Collections.emptyList(), logger);
+
+        logAttempts = root.node("security", "log-attempts").getBoolean(true);
+        auditBufferSize = check.atLeast("security.audit.buffer-size", root.node("security", "audit", "buffer-size").getInt(8192), 64, 8192);
+        auditMaxFileBytes = check.atLeast("security.audit.max-file-size", root.node("security", "audit", "max-file-size").getLong(10), 1, 10) * 1024 * 1024;
+        auditMaxFiles = check.atLeast("security.audit.max-files", root.node("security", "audit", "max-files").getInt(5), 0, 5);
+
+        prometheusEnabled = root.node("monitoring", "prometheus", "enabled").getBoolean(false);
+        prometheusHost = root.node("monitoring", "prometheus", "host").getString("127.0.0.1");
+        prometheusPort = check.between("monitoring.prometheus.port", root.node("monitoring", "prometheus", "port").getInt(9464), 1, 65535, 9464);
+
+        CommentedConfigurationNode rateLimit = root.node("security", "rate-limit");
+        rateLimitEnabled = rateLimit.node("enabled").getBoolean(true);
+        rateLimitStripes = check.atLeast("security.rate-limit.stripes", rateLimit.node("stripes").getInt(16384), 16, 16384);
+        rateLimitIPv4Prefix = check.between("security.rate-limit.ipv4-prefix", rateLimit.node("ipv4-prefix").getInt(24), 0, 32, 24);
+        rateLimitIPv6Prefix = check.between("security.rate-limit.ipv6-prefix", rateLimit.node("ipv6-prefix").getInt(64), 0, 64, 64);
+        rateLimitIPCapacity = check.between("security.rate-limit.ip.capacity", rateLimit.node("ip", "capacity").getInt(5), 1, 16000, 5);
+        rateLimitIPRefill = rateLimit.node("ip", "refill-per-second").getDouble(0.2);
+        rateLimitSubnetCapacity = check.between("security.rate-limit.subnet.capacity", rateLimit.node("subnet", "capacity").getInt(20), 1, 16000, 20);
+        rateLimitSubnetRefill = rateLimit.node("subnet", "refill-per-second").getDouble(1.0);
+
+        CommentedConfigurationNode attackMode = root.node("security", "attack-mode");
+        attackModeEnabled = attackMode.node("enabled").getBoolean(true);
+        attackModeEnterRate = check.atLeast("security.attack-mode.enter-joins-per-second", attackMode.node("enter-joins-per-second").getInt(30), 1, 30);
+        int exitRate = check.atLeast("security.attack-mode.exit-joins-per-second", attackMode.node("exit-joins-per-second").getInt(10), 0, 10);
+        if (exitRate >= attackModeEnterRate) {
+            // Without a gap between the thresholds the mode would flap on every sample
+            logger.warn("security.attack-mode.exit-joins-per-second must be below enter-joins-per-second, using {}", attackModeEnterRate / 2);
+            exitRate = attackModeEnterRate / 2;
+        }
+        attackModeExitRate = exitRate;
+        attackModeExitDelay = check.atLeast("security.attack-mode.exit-delay", attackMode.node("exit-delay").getInt(60), 1, 60);
+        attackModeLimboCap = check.atLeast("security.attack-mode.limbo-cap", attackMode.node("limbo-cap").getInt(50), 1, 50);
+
+        preLoginDenyEnabled = root.node("security", "pre-login-deny", "enabled").getBoolean(true);
+        preLoginDenyByIP = root.node("security", "pre-login-deny", "by-ip").getBoolean(true);
+    }
+
+    private static List<String> readDirections(CommentedConfigurationNode root, Logger logger) {
+        List<String> raw = readList(root.node("verification", "movement", "directions"), DEFAULT_DIRECTIONS, logger);
+        List<String> valid = new ArrayList<>(raw.size());
+        for (String entry : raw) {
+            String[] parts = entry.split(":");
+            boolean ok = parts.length == 2 && KNOWN_DIRECTIONS.contains(parts[0].trim().toLowerCase(Locale.ROOT));
+            if (ok) {
+                try {
+                    ok = Integer.parseInt(parts[1].trim()) >= 0;
+                } catch (NumberFormatException e) {
+                    ok = false;
+                }
+            }
+            if (ok) {
+                valid.add(parts[0].trim().toLowerCase(Locale.ROOT) + ":" + parts[1].trim());
+            } else {
+                logger.warn("Ignoring invalid movement direction entry: {}", entry);
+            }
+        }
+        return valid.isEmpty() ? DEFAULT_DIRECTIONS : Collections.unmodifiableList(valid);
+    }
+
+    private static List<String> readList(CommentedConfigurationNode node, List<String> fallback, Logger logger) {
+        try {
+            List<String> list = node.getList(String.class, fallback);
+            return Collections.unmodifiableList(new ArrayList<>(list));
+        } catch (SerializationException e) {
+            logger.warn("Could not deserialize " + node.path() + ", using default values", e);
+            return fallback;
+        }
+    }
+
+    // Logs out-of-range values and substitutes the default
+    private static final class Validator {
+        private final Logger logger;
+
+        Validator(Logger logger) {
+            this.logger = logger;
+        }
+
+        int atLeast(String key, int value, int min, int fallback) {
+            return between(key, value, min, Integer.MAX_VALUE, fallback);
+        }
+
+        long atLeast(String key, long value, long min, long fallback) {
+            if (value < min) {
+                logger.warn("{} must be at least {}, using {}", key, min, fallback);
+                return fallback;
+            }
+            return value;
+        }
+
+        int between(String key, int value, int min, int max, int fallback) {
+            if (value < min || value > max) {
+                logger.warn("{} must be between {} and {}, using {}", key, min, max, fallback);
+                return fallback;
+            }
+            return value;
+        }
+
+        double between(String key, double value, double min, double max, double fallback) {
+            if (value < min || value > max) {
+                logger.warn("{} must be between {} and {}, using {}", key, min, max, fallback);
+                return fallback;
+            }
+            return value;
+        }
+
+        void range(String direction, String axis, double min, double max) {
+            if (min > max) {
+                logger.warn("verification.movement.angles.{}: {}-min is greater than {}-max, this direction can never pass",
+                        direction, axis, axis);
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.melut.nomorebots.config;
 
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import org.slf4j.Logger;
 import org.spongepowered.configurate.CommentedConfigurationNode;
 import org.spongepowered.configurate.yaml.YamlConfigurationLoader;
@@ -10,15 +11,20 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class LanguageManager {
+    private static final LegacyComponentSerializer LEGACY = LegacyComponentSerializer.legacyAmpersand();
+
     private final Path dataDirectory;
-    private final String language;
+    private volatile String language;
     private final Logger logger;
-    private CommentedConfigurationNode rootNode;
-    private final Map<String, String> messageCache = new HashMap<>();
+    // Every message compiled at load; replaced as a whole on reload so lookups need no locking
+    private volatile Map<String, MessageTemplate> templates = Collections.emptyMap();
     private final MiniMessage miniMessage = MiniMessage.miniMessage();
 
     public LanguageManager(Path dataDirectory, String language, Logger logger) {
@@ -28,6 +34,12 @@ public class LanguageManager {
         loadLanguages();
     }
 
+    /** Re-reads the language files, switching to {@code language}. */
+    public void reload(String language) {
+        this.language = language;
+        loadLanguages();
+    }
+
     private void loadLanguages() {
         Path langDir = dataDirectory.resolve("lang");
         try {
@@ -48,13 +60,29 @@ public class LanguageManager {
             YamlConfigurationLoader loader = YamlConfigurationLoader.builder()
                     .path(langFile)
                     .build();
-            rootNode = loader.load();
-            messageCache.clear();
-        } catch (IOException e) {
+            CommentedConfigurationNode rootNode = loader.load();
+
+            Map<String, MessageTemplate> compiled = new HashMap<>();
+            compile(rootNode.node("messages"), "", compiled);
+            templates = Collections.unmodifiableMap(compiled);
+        } catch (IOException | RuntimeException e) {
             logger.error("Could not load language file", e);
         }
     }
 
+    private void compile(CommentedConfigurationNode node, String prefix, Map<String, MessageTemplate> out) {
+        if (node.isMap()) {
+            for (Map.Entry<Object, CommentedConfigurationNode> child : node.childrenMap().entrySet()) {
+                compile(child.getValue(), prefix.isEmpty() ? String.valueOf(child.getKey()) : prefix + "." + child.getKey(), out);
+            }
+            return;
+        }
+        String raw = node.getString();
+        if (raw != null && !prefix.isEmpty()) {
+            out.put(prefix, MessageTemplate.compile(raw));
+        }
+    }
+
     private void saveResource(Path langDir, String resourceName) {
         Path target = langDir.resolve(resourceName);
         if (!Files.exists(target)) {
@@ -68,41 +96,105 @@ public class LanguageManager {
         }
     }
 
-    public String getRawMessage(String path) {
-        if (messageCache.containsKey(path)) {
-            return messageCache.get(path);
-        }
-
-        // Prepend "messages." to the path if not already present
-        String fullPath = path.startsWith("messages.") ? path : "messages." + path;
-        String message = getMessageFromNode(rootNode, fullPath.split("\\."));
-        if (message == null) {
-            return "Missing message: " + path;
-        }
-
-        messageCache.put(path, message);
-        return message;
+    private MessageTemplate lookup(String path) {
+        // Accept paths with or without the "messages." prefix
+        String key = path.startsWith("messages.") ? path.substring("messages.".length()) : path;
+        return templates.get(key);
     }
 
-    private String getMessageFromNode(CommentedConfigurationNode node, String[] path) {
-        CommentedConfigurationNode current = node;
-        for (String key : path) {
-            current = current.node(key);
-        }
-        return current.getString();
+    public String getRawMessage(String path) {
+        MessageTemplate template = lookup(path);
+        return template != null ? template.raw : "Missing message: " + path;
     }
 
     public Component getMessage(String path) {
-        String raw = getRawMessage(path);
-        return net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer.legacyAmpersand().deserialize(raw);
+        MessageTemplate template = lookup(path);
+        if (template == null) {
+            return LEGACY.deserialize("Missing message: " + path);
+        }
+        return template.render(Collections.emptyMap());
     }
     
     public Component getMessage(String path, Map<String, String> placeholders) {
-        String raw = getRawMessage(path);
-        for (Map.Entry<String, String> entry : placeholders.entrySet()) {
-            String value = entry.getValue() != null ? entry.getValue() : "";
-            raw = raw.replace("%" + entry.getKey() + "%", value);
+        MessageTemplate template = lookup(path);
+        if (template == null) {
+            return LEGACY.deserialize("Missing message: " + path);
+        }
+        return template.render(placeholders);
+    }
+
+    /**
+     * A message split at its {@code %placeholder%} markers. Messages without placeholders are
+     * rendered once and shared; the rest are joined in one pass and parsed once per call.
+     */
+    private static final class MessageTemplate {
+        private final String raw;
+        private final Component constant;
+        // Literal text at even indexes, placeholder names at odd indexes
+        private final String[] segments;
+
+        private MessageTemplate(String raw, Component constant, String[] segments) {
+            this.raw = raw;
+            this.constant = constant;
+            this.segments = segments;
+        }
+
+        static MessageTemplate compile(String raw) {
+            List<String> segments = new ArrayList<>();
+            int literalStart = 0;
+            int open = raw.indexOf('%');
+            while (open >= 0) {
+                int close = raw.indexOf('%', open + 1);
+                if (close < 0) {
+                    break;
+                }
+                if (close > open + 1 && isPlaceholderName(raw, open + 1, close)) {
+                    segments.add(raw.substring(literalStart, open));
+                    segments.add(raw.substring(open + 1, close));
+                    literalStart = close + 1;
+                    open = raw.indexOf('%', literalStart);
+                } else {
+                    // A lone '%' is literal text, the closing one may start a placeholder
+                    open = close;
+                }
+            }
+            if (segments.isEmpty()) {
+                return new MessageTemplate(raw, LEGACY.deserialize(raw), null);
+            }
+            segments.add(raw.substring(literalStart));
+            return new MessageTemplate(raw, null, segments.toArray(new String[0]));
+        }
+
+        private static boolean isPlaceholderName(String raw, int from, int to) {
+            for (int i = from; i < to; i++) {
+                char c = raw.charAt(i);
+                if (!Character.isLetterOrDigit(c) && c != '_' && c != '-') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        Component render(Map<String, String> placeholders) {
+            if (constant != null) {
+                return constant;
+            }
+            StringBuilder out = new StringBuilder(raw.length() + 16);
+            for (int i = 0; i < segments.length; i++) {
+                if ((i & 1) == 0) {
+                    out.append(segments[i]);
+                    continue;
+                }
+                String name = segments[i];
+                if (placeholders.containsKey(name)) {
+                    String value = placeholders.get(name);
+                    out.append(value != null ? value : "");
+                } else {
+                    // Unknown placeholders are left as written
+                    out.append('%').append(name).append('%');
+                }
+            }
+            return LEGACY.deserialize(out.toString());
         }
-        return net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer.legacyAmpersand().deserialize(raw);
     }
-}
\ No newline at end of file
+}
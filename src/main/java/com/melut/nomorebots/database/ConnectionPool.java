@@ -0,0 +1,130 @@
+package com.melut.nomorebots.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed-size pool of JDBC connections. Each borrowed connection is used by exactly one
+ * thread until it is returned, which is what the drivers require. A connection is validated
+ * when it is borrowed, and one that is no longer valid, or that failed with a transient
+ * connection error, is closed and replaced by a fresh one before it goes back to the pool.
+ */
+class ConnectionPool implements AutoCloseable {
+
+    interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    interface SqlFunction<T> {
+        T apply(Connection connection) throws SQLException;
+    }
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final ConnectionFactory factory;
+    private final BlockingQueue<Connection> idle;
+    private final List<Connection> all;
+    private final long borrowTimeoutMillis;
+
+    ConnectionPool(ConnectionFactory factory, int size, long borrowTimeoutMillis) throws SQLException {
+        int poolSize = Math.max(1, size);
+        this.factory = factory;
+        this.idle = new ArrayBlockingQueue<>(poolSize);
+        this.all = new ArrayList<>(poolSize);
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        try {
+            for (int i = 0; i < poolSize; i++) {
+                Connection connection = factory.open();
+                all.add(connection);
+                idle.add(connection);
+            }
+        } catch (SQLException e) {
+            close();
+            throw e;
+        }
+    }
+
+    <T> T withConnection(SqlFunction<T> function) throws SQLException {
+        Connection connection;
+        try {
+            connection = idle.poll(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        if (connection == null) {
+            throw new SQLException("Timed out waiting for a database connection");
+        }
+        try {
+            if (!isValid(connection)) {
+                connection = replace(connection);
+            }
+            return function.apply(connection);
+        } catch (SQLTransientConnectionException e) {
+            try {
+                connection = replace(connection);
+            } catch (SQLException reopen) {
+                e.addSuppressed(reopen);
+            }
+            throw e;
+        } finally {
+            idle.add(connection);
+        }
+    }
+
+    private static boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Closes a broken connection and opens its replacement. If the database cannot be reached,
+     * the broken connection keeps its slot so the next borrow tries again.
+     */
+    private Connection replace(Connection broken) throws SQLException {
+        try {
+            broken.close();
+        } catch (SQLException ignored) {
+            // Already unusable
+        }
+        Connection fresh = factory.open();
+        synchronized (all) {
+            int slot = all.indexOf(broken);
+            if (slot >= 0) {
+                all.set(slot, fresh);
+            } else {
+                all.add(fresh);
+            }
+        }
+        return fresh;
+    }
+
+    int size() {
+        synchronized (all) {
+            return all.size();
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (all) {
+            for (Connection connection : all) {
+                try {
+                    connection.close();
+                } catch (SQLException ignored) {
+                    // Closing anyway
+                }
+            }
+        }
+        idle.clear();
+    }
+}
@@ -1,221 +1,454 @@
 package com.melut.nomorebots.database;
 
 import com.melut.nomorebots.config.ConfigManager;
+import com.melut.nomorebots.monitoring.Histogram;
 import org.slf4j.Logger;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Path;
-import java.sql.*;
+import java.sql.SQLException;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class DatabaseManager {
+    // Pages freed per incremental vacuum step, 4 MB with the default page size
+    private static final int VACUUM_PAGES_PER_STEP = 1024;
+
     private final ConfigManager configManager;
     private final Logger logger;
     private final Path dataDirectory;
-    private Connection connection;
-    private final ExecutorService executor;
-    private final java.util.Map<UUID, PlayerData> playerDataCache = new java.util.concurrent.ConcurrentHashMap<>();
+    private final PlayerStore store;
+    // All writes are serialized on this executor
+    private final ScheduledExecutorService executor;
+    // Reads run here, or on the writer when the store cannot read concurrently
+    private ExecutorService readExecutor;
+    private final PlayerDataCache playerDataCache;
+    private final VerifiedIndex verifiedIndex = new VerifiedIndex();
+    private final DenyIndex denyIndex = new DenyIndex();
+    // Checkpoint of both indexes, null when disabled
+    private final Path snapshotFile;
+    private final WriteBehindQueue writeQueue;
+    private final ScheduledFuture<?> flushTask;
+    // Store call latency, exported by the metrics registry
+    private final Histogram loadLatency = new Histogram();
+    private final Histogram createLatency = new Histogram();
+    private final Histogram writeLatency = new Histogram();
+    // Retention totals since startup
+    private final AtomicLong retentionRowsPruned = new AtomicLong();
+    private final AtomicLong retentionBytesReclaimed = new AtomicLong();
+    // Only touched on the writer thread
+    private boolean retentionRunning = false;
 
     public DatabaseManager(ConfigManager configManager, Logger logger, Path dataDirectory) {
+        this(configManager, logger, dataDirectory, null);
+    }
+
+    /**
+     * @param store backend to use, or null to create the one selected by {@code database.type}
+     */
+    public DatabaseManager(ConfigManager configManager, Logger logger, Path dataDirectory, PlayerStore store) {
         this.configManager = configManager;
         this.logger = logger;
         this.dataDirectory = dataDirectory;
-        this.executor = Executors.newFixedThreadPool(2); // Simple thread pool for async ops
+        this.executor = Executors.newSingleThreadScheduledExecutor();
+        this.store = store != null ? store : createStore();
+        this.readExecutor = executor;
+        this.playerDataCache = new PlayerDataCache(configManager.getCacheMaxWeight(),
+                configManager.getCacheTtl() * 1000L, configManager.getCacheNegativeTtl() * 1000L);
         initDatabase();
+
+        // Write-behind: updates are merged per player and flushed on size or time
+        this.writeQueue = new WriteBehindQueue(this::writeBatch, executor, configManager.getWriteBatchSize());
+        long flushInterval = Math.max(10, configManager.getWriteFlushInterval());
+        this.flushTask = executor.scheduleWithFixedDelay(this::flushPendingWrites, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+
+        this.snapshotFile = configManager.isSnapshotEnabled() ? dataDirectory.resolve(configManager.getSnapshotFile()) : null;
+        loadSnapshot();
+        loadVerifiedIndex();
+        loadDenyIndex();
+        executor.scheduleWithFixedDelay(verifiedIndex::expire, 30, 30, TimeUnit.SECONDS);
+        executor.scheduleWithFixedDelay(denyIndex::expire, 30, 30, TimeUnit.SECONDS);
+        if (snapshotFile != null) {
+            long snapshotInterval = configManager.getSnapshotInterval();
+            executor.scheduleWithFixedDelay(this::saveSnapshot, snapshotInterval, snapshotInterval, TimeUnit.SECONDS);
+        }
+        long cleanupInterval = configManager.getCleanupInterval();
+        executor.scheduleWithFixedDelay(this::startRetention, cleanupInterval, cleanupInterval, TimeUnit.SECONDS);
     }
 
-    private void initDatabase() {
+    /**
+     * Retention pass: deletes inactive rows in small keyed batches, then frees the emptied pages
+     * in small steps. Every batch and step is its own task on the writer thread, so queued player
+     * writes run in between and the write lock is only ever held for one batch.
+     */
+    private void startRetention() {
+        int retentionDays = configManager.getRetentionDays();
+        if (retentionDays <= 0 || retentionRunning) {
+            return;
+        }
+        retentionRunning = true;
+        pruneBatch(new RetentionRun(retentionDays, configManager.getRetentionBatchSize()));
+    }
+
+    private void pruneBatch(RetentionRun run) {
+        try {
+            PlayerStore.PruneBatch batch = store.pruneInactive(run.next, run.retentionDays, run.startMillis, run.batchSize);
+            for (UUID uuid : batch.deleted) {
+                playerDataCache.invalidate(uuid);
+            }
+            run.pruned += batch.deleted.size();
+            run.next = batch.next;
+            continueRetention(batch.next != null ? () -> pruneBatch(run) : () -> compactStep(run));
+        } catch (SQLException e) {
+            logger.error("Error pruning inactive player rows", e);
+            retentionRunning = false;
+        }
+    }
+
+    private void compactStep(RetentionRun run) {
+        try {
+            long reclaimed = store.compact(VACUUM_PAGES_PER_STEP);
+            run.reclaimed += reclaimed;
+            if (reclaimed > 0) {
+                continueRetention(() -> compactStep(run));
+                return;
+            }
+        } catch (SQLException e) {
+            logger.error("Error compacting database", e);
+        }
+        retentionRunning = false;
+        retentionRowsPruned.addAndGet(run.pruned);
+        retentionBytesReclaimed.addAndGet(run.reclaimed);
+        if (run.pruned > 0 || run.reclaimed > 0) {
+            logger.info("Retention pruned " + run.pruned + " inactive players and reclaimed " + (run.reclaimed / 1024) + " KB in "
+                    + (System.currentTimeMillis() - run.startMillis) + "ms");
+        }
+    }
+
+    // Queues the next step behind whatever the writer already has pending
+    private void continueRetention(Runnable step) {
+        try {
+            executor.execute(step);
+        } catch (RejectedExecutionException e) {
+            // Shutting down, the next start picks up from the beginning
+            retentionRunning = false;
+        }
+    }
+
+    private static final class RetentionRun {
+        private final int retentionDays;
+        private final int batchSize;
+        private final long startMillis = System.currentTimeMillis();
+        private UUID next;
+        private long pruned;
+        private long reclaimed;
+
+        private RetentionRun(int retentionDays, int batchSize) {
+            this.retentionDays = retentionDays;
+            this.batchSize = batchSize;
+        }
+    }
+
+    // A valid checkpoint answers cooldown checks straight away. Its entries stay provisional: the
+    // store scans below confirm every key they still find and drop the rest once they finish
+    private void loadSnapshot() {
+        if (snapshotFile == null || !snapshotFile.toFile().isFile()) {
+            return;
+        }
+        long start = System.nanoTime();
         try {
-            Class.forName("org.sqlite.JDBC");
-            File dbFile = dataDirectory.resolve(configManager.getSQLiteFile()).toFile();
-            if (!dbFile.getParentFile().exists()) {
-                dbFile.getParentFile().mkdirs();
+            int loaded = IndexSnapshot.load(snapshotFile, verifiedIndex, denyIndex);
+            verifiedIndex.markLoaded();
+            logger.info("Loaded " + loaded + " index entries from " + snapshotFile.getFileName() + " in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable index snapshot " + snapshotFile.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    private void saveSnapshot() {
+        if (snapshotFile == null || !verifiedIndex.isLoaded()) {
+            return;
+        }
+        try {
+            int written = IndexSnapshot.save(snapshotFile, verifiedIndex, denyIndex);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Wrote " + written + " index entries to " + snapshotFile.getFileName());
+            }
+        } catch (IOException e) {
+            logger.error("Error writing index snapshot", e);
+        }
+    }
+
+    // Fills the verified index in the background; lookups fall back to the store until it is done
+    private void loadVerifiedIndex() {
+        CompletableFuture.runAsync(() -> {
+            try {
+                long now = System.currentTimeMillis();
+                store.scanVerified(now, verifiedIndex::record);
+                int dropped = verifiedIndex.dropUnconfirmed();
+                verifiedIndex.markLoaded();
+                logger.info("Loaded " + verifiedIndex.size() + " active verification cooldowns into memory"
+                        + (dropped > 0 ? " (" + dropped + " stale snapshot entries dropped)" : ""));
+            } catch (SQLException e) {
+                logger.error("Error loading verified index", e);
             }
-            
-            String url = "jdbc:sqlite:" + dbFile.getAbsolutePath();
-            connection = DriverManager.getConnection(url);
-            
-            try (Statement stmt = connection.createStatement()) {
-                String sql = "CREATE TABLE IF NOT EXISTS player_verification (" +
-                        "uuid VARCHAR(36) PRIMARY KEY, " +
-                        "username VARCHAR(16) NOT NULL, " +
-                        "first_join TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
-                        "last_verification TIMESTAMP, " +
-                        "verification_status INTEGER DEFAULT 0, " +
-                        "total_attempts INTEGER DEFAULT 0, " +
-                        "failed_attempts INTEGER DEFAULT 0, " +
-                        "success_count INTEGER DEFAULT 0, " +
-                        "timeout_until TIMESTAMP NULL, " +
-                        "remember_until TIMESTAMP NULL, " +
-                        "bypass_granted BOOLEAN DEFAULT 0, " +
-                        "last_ip VARCHAR(45), " +  // IPv6 support
-                        "verified_until TIMESTAMP NULL, " + // IP + User based cooldown
-                        "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
-                        "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
-                        ");";
-                stmt.execute(sql);
-                
-                // Indexes
-                stmt.execute("CREATE INDEX IF NOT EXISTS idx_player_uuid ON player_verification(uuid);");
-                stmt.execute("CREATE INDEX IF NOT EXISTS idx_player_ip ON player_verification(last_ip);");
-                
-                // Add new columns to existing table if not present
-                addColumnIfNotExists(stmt, "player_verification", "last_ip", "VARCHAR(45)");
-                addColumnIfNotExists(stmt, "player_verification", "verified_until", "TIMESTAMP NULL");
+        }, readExecutor);
+    }
+
+    // Timeouts from before a restart; the row does not say which IP earned them, so only usernames
+    private void loadDenyIndex() {
+        CompletableFuture.runAsync(() -> {
+            try {
+                store.scanTimedOut(System.currentTimeMillis(), (username, ip, until) -> denyIndex.restore(username, until));
+                int dropped = denyIndex.dropUnconfirmed();
+                logger.info("Loaded " + denyIndex.size() + " active timeouts into memory"
+                        + (dropped > 0 ? " (" + dropped + " stale snapshot entries dropped)" : ""));
+            } catch (SQLException e) {
+                logger.error("Error loading deny index", e);
             }
-            
-            logger.info("Database initialized successfully.");
+        }, readExecutor);
+    }
+
+    private PlayerStore createStore() {
+        String type = configManager.getDatabaseType().toLowerCase();
+        switch (type) {
+            case "mysql":
+            case "mariadb":
+                return new MySqlPlayerStore(logger,
+                        MySqlPlayerStore.buildUrl(configManager.getMySQLHost(), configManager.getMySQLPort(), configManager.getMySQLDatabase()),
+                        configManager.getMySQLUsername(), configManager.getMySQLPassword(), configManager.getMySQLPoolSize());
+            case "memory":
+                return new InMemoryPlayerStore();
+            case "sqlite":
+                break;
+            default:
+                logger.warn("Unknown database type {}, falling back to sqlite", type);
+                break;
+        }
+        File dbFile = dataDirectory.resolve(configManager.getSQLiteFile()).toFile();
+        return new SQLitePlayerStore(logger, dbFile, configManager.isSQLiteWAL(), configManager.getSQLiteSynchronous(),
+                configManager.getSQLiteBusyTimeout(), configManager.getSQLiteReadConnections());
+    }
+
+    private void initDatabase() {
+        try {
+            // Schema work happens on the writer thread like every other write
+            CompletableFuture.runAsync(() -> {
+                try {
+                    store.init();
+                } catch (SQLException e) {
+                    throw new java.util.concurrent.CompletionException(e);
+                }
+            }, executor).join();
+
+            if (store.getReadConnections() > 0) {
+                readExecutor = Executors.newFixedThreadPool(store.getReadConnections());
+            }
+            logger.info("Database initialized successfully (" + store.getName() + ").");
         } catch (Exception e) {
             logger.error("Failed to initialize database", e);
         }
     }
 
     public Optional<PlayerData> getCachedPlayerData(UUID uuid) {
-        return Optional.ofNullable(playerDataCache.get(uuid));
+        PlayerData pending = writeQueue.getPending(uuid);
+        if (pending != null) {
+            return Optional.of(pending);
+        }
+        Optional<PlayerData> cached = playerDataCache.getIfPresent(uuid);
+        return cached != null ? cached : Optional.empty();
     }
 
     public void cachePlayerData(PlayerData data) {
-        playerDataCache.put(data.getUuid(), data);
+        playerDataCache.put(data);
     }
 
     public void removeCachedPlayerData(UUID uuid) {
-        playerDataCache.remove(uuid);
+        playerDataCache.invalidate(uuid);
+    }
+
+    /**
+     * Drops the player's cached row when other proxies share the store, so the next login reads
+     * what they wrote meanwhile instead of writing a stale copy back over it. Runs on the writer
+     * thread, so a flush that already took the player's last update finishes writing it first.
+     */
+    public void onPlayerDisconnect(UUID uuid) {
+        if (!store.isShared()) {
+            return;
+        }
+        try {
+            executor.execute(() -> playerDataCache.invalidate(uuid));
+        } catch (RejectedExecutionException e) {
+            // Shutting down, nothing is read from the cache anymore
+            playerDataCache.invalidate(uuid);
+        }
     }
 
     public CompletableFuture<Optional<PlayerData>> getPlayerData(UUID uuid) {
-        if (playerDataCache.containsKey(uuid)) {
-            return CompletableFuture.completedFuture(Optional.of(playerDataCache.get(uuid)));
+        // Queued updates are newer than anything in the table
+        PlayerData pending = writeQueue.getPending(uuid);
+        if (pending != null) {
+            return CompletableFuture.completedFuture(Optional.of(pending));
         }
+        return playerDataCache.get(uuid, this::loadPlayerData);
+    }
+
+    private CompletableFuture<Optional<PlayerData>> loadPlayerData(UUID uuid) {
         return CompletableFuture.supplyAsync(() -> {
-            String sql = "SELECT * FROM player_verification WHERE uuid = ?";
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                pstmt.setString(1, uuid.toString());
-                ResultSet rs = pstmt.executeQuery();
-                
-                if (rs.next()) {
-                    PlayerData data = new PlayerData(
-                            UUID.fromString(rs.getString("uuid")),
-                            rs.getString("username"),
-                            rs.getInt("verification_status") == 1,
-                            rs.getInt("total_attempts"),
-                            rs.getInt("failed_attempts"),
-                            rs.getTimestamp("timeout_until"),
-                            rs.getBoolean("bypass_granted"),
-                            rs.getString("last_ip"),
-                            rs.getTimestamp("verified_until")
-                    );
-                    playerDataCache.put(uuid, data);
-                    return Optional.of(data);
-                }
+            long start = System.nanoTime();
+            try {
+                return store.load(uuid);
             } catch (SQLException e) {
                 logger.error("Error fetching player data for " + uuid, e);
+                throw new java.util.concurrent.CompletionException(e);
+            } finally {
+                loadLatency.observeSince(start);
             }
-            return Optional.empty();
-        }, executor);
+        }, readExecutor);
     }
 
     public CompletableFuture<Void> createPlayerData(UUID uuid, String username) {
         return CompletableFuture.runAsync(() -> {
-            String sql = "INSERT OR IGNORE INTO player_verification (uuid, username) VALUES (?, ?)";
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                pstmt.setString(1, uuid.toString());
-                pstmt.setString(2, username);
-                pstmt.executeUpdate();
+            long start = System.nanoTime();
+            try {
+                if (store.create(uuid, username)) {
+                    // A fresh row holds only defaults, so it can be cached without reading it back
+                    playerDataCache.put(new PlayerData(uuid, username, false, 0, 0, null, false));
+                } else {
+                    playerDataCache.invalidateNegative(uuid);
+                }
             } catch (SQLException e) {
                 logger.error("Error creating player data for " + uuid, e);
+            } finally {
+                createLatency.observeSince(start);
             }
         }, executor);
     }
 
     public CompletableFuture<Void> updatePlayerData(PlayerData data) {
-        playerDataCache.put(data.getUuid(), data);
-        return CompletableFuture.runAsync(() -> {
-            String sql = "UPDATE player_verification SET " +
-                    "username = ?, " +
-                    "verification_status = ?, " +
-                    "total_attempts = ?, " +
-                    "failed_attempts = ?, " +
-                    "timeout_until = ?, " +
-                    "bypass_granted = ?, " +
-                    "last_ip = ?, " +
-                    "verified_until = ?, " +
-                    "updated_at = CURRENT_TIMESTAMP " +
-                    "WHERE uuid = ?";
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                pstmt.setString(1, data.getUsername());
-                pstmt.setInt(2, data.isVerified() ? 1 : 0);
-                pstmt.setInt(3, data.getTotalAttempts());
-                pstmt.setInt(4, data.getFailedAttempts());
-                pstmt.setTimestamp(5, data.getTimeoutUntil());
-                pstmt.setBoolean(6, data.isBypassGranted());
-                pstmt.setString(7, data.getLastIP());
-                pstmt.setTimestamp(8, data.getVerifiedUntil());
-                pstmt.setString(9, data.getUuid().toString());
-                pstmt.executeUpdate();
+        playerDataCache.put(data);
+        verifiedIndex.record(data);
+        denyIndex.record(data);
+        return writeQueue.enqueue(data);
+    }
+
+    public int getPendingWriteCount() {
+        return writeQueue.size();
+    }
+
+    public long getCacheHits() { return playerDataCache.getHitCount(); }
+    public long getCacheMisses() { return playerDataCache.getMissCount(); }
+    public long getCacheEvictions() { return playerDataCache.getEvictionCount(); }
+    public int getCacheSize() { return playerDataCache.size(); }
+
+    public Histogram getLoadLatency() { return loadLatency; }
+    public Histogram getCreateLatency() { return createLatency; }
+    public Histogram getWriteLatency() { return writeLatency; }
+
+    public long getRetentionRowsPruned() { return retentionRowsPruned.get(); }
+    public long getRetentionBytesReclaimed() { return retentionBytesReclaimed.get(); }
+
+    public CompletableFuture<PlayerCounts> getPlayerCounts() {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return store.count(System.currentTimeMillis());
             } catch (SQLException e) {
-                logger.error("Error updating player data for " + data.getUuid(), e);
+                logger.error("Error counting players", e);
+                throw new java.util.concurrent.CompletionException(e);
             }
-        }, executor);
+        }, readExecutor);
+    }
+
+    public VerifiedIndex getVerifiedIndex() {
+        return verifiedIndex;
+    }
+
+    public DenyIndex getDenyIndex() {
+        return denyIndex;
+    }
+
+    public PlayerStore getStore() {
+        return store;
+    }
+
+    private void flushPendingWrites() {
+        try {
+            writeQueue.flush();
+        } catch (Exception e) {
+            logger.error("Error flushing pending player updates", e);
+        }
+    }
+
+    // Runs one JDBC batch inside a single transaction
+    private void writeBatch(List<PlayerData> batch) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            store.upsertBatch(batch);
+        } catch (SQLException e) {
+            logger.error("Error writing batch of " + batch.size() + " player updates", e);
+            throw e;
+        } finally {
+            writeLatency.observeSince(start);
+        }
     }
     
     // IP-based verification check methods
     public CompletableFuture<Boolean> isIPVerified(String ip) {
+        if (verifiedIndex.isLoaded()) {
+            return CompletableFuture.completedFuture(verifiedIndex.isIPVerified(ip));
+        }
         return CompletableFuture.supplyAsync(() -> {
-            String sql = "SELECT verified_until FROM player_verification WHERE last_ip = ? AND verified_until > datetime('now')";
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                pstmt.setString(1, ip);
-                ResultSet rs = pstmt.executeQuery();
-                return rs.next();
+            try {
+                return store.isIPVerified(ip);
             } catch (SQLException e) {
                 logger.error("Error checking IP verification status for " + ip, e);
                 return false;
             }
-        }, executor);
+        }, readExecutor);
     }
     
     public CompletableFuture<Boolean> isUserVerified(String username) {
+        if (verifiedIndex.isLoaded()) {
+            return CompletableFuture.completedFuture(verifiedIndex.isUserVerified(username));
+        }
         return CompletableFuture.supplyAsync(() -> {
-            String sql = "SELECT verified_until FROM player_verification WHERE username = ? AND verified_until > datetime('now')";
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                pstmt.setString(1, username);
-                ResultSet rs = pstmt.executeQuery();
-                return rs.next();
+            try {
+                return store.isUserVerified(username);
             } catch (SQLException e) {
                 logger.error("Error checking user verification status for " + username, e);
                 return false;
             }
-        }, executor);
-    }
-    
-    private void addColumnIfNotExists(Statement stmt, String tableName, String columnName, String columnType) {
-        try {
-            DatabaseMetaData dbm = connection.getMetaData();
-            ResultSet columns = dbm.getColumns(null, null, tableName, columnName);
-            if (!columns.next()) {
-                String alterSql = "ALTER TABLE " + tableName + " ADD COLUMN " + columnName + " " + columnType;
-                stmt.execute(alterSql);
-                logger.info("Added column " + columnName + " to table " + tableName);
-            }
-            columns.close();
-        } catch (SQLException e) {
-            logger.warn("Could not check/add column " + columnName + " to table " + tableName, e);
-        }
+        }, readExecutor);
     }
     
     public void close() {
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+            // Stop the timer, let in-flight work finish, then drain the queue on this thread
+            flushTask.cancel(false);
+            if (readExecutor != executor) {
+                readExecutor.shutdown();
             }
-            if (executor != null) {
-                executor.shutdown();
+            executor.shutdown();
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Database executor did not finish in time");
             }
-        } catch (SQLException e) {
-            logger.error("Error closing database connection", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            writeQueue.drain();
+            saveSnapshot();
+            store.close();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,95 @@
+package com.melut.nomorebots.database;
+
+import java.util.Locale;
+
+/**
+ * In-memory view of every active {@code timeout_until}, keyed by IP and by lowercase username, so
+ * repeat offenders can be turned away at pre-login before authentication or any database work.
+ * The IP entry carries the username it was denied for, so clearing that user's timeout also frees
+ * the IP unless a later timeout claimed it.
+ */
+public class DenyIndex {
+    private final ExpiringIndex byIP = new ExpiringIndex();
+    private final ExpiringIndex byUser = new ExpiringIndex();
+
+    /** Denies the username and, when known, the IP it connected from until the deadline. */
+    public void deny(String username, String ip, long timeoutUntilMillis) {
+        if (username == null || timeoutUntilMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        String user = username.toLowerCase(Locale.ROOT);
+        byUser.put(user, timeoutUntilMillis, ip);
+        if (ip != null) {
+            byIP.put(ip, timeoutUntilMillis, user);
+        }
+    }
+
+    /**
+     * Re-applies a timeout read back from the store. The row does not say which IP earned it, so
+     * the IP a live entry already carries is kept.
+     */
+    public void restore(String username, long timeoutUntilMillis) {
+        if (username == null) {
+            return;
+        }
+        String user = username.toLowerCase(Locale.ROOT);
+        ExpiringIndex.Entry current = byUser.get(user, System.currentTimeMillis());
+        deny(user, current != null ? current.getValue() : null, timeoutUntilMillis);
+    }
+
+    /** Mirrors the timeout column of a row that was just written; a cleared timeout lifts the deny. */
+    public void record(PlayerData data) {
+        long timeoutUntil = data.getTimeoutUntil() != null ? data.getTimeoutUntil().getTime() : 0L;
+        if (data.getUsername() == null) {
+            return;
+        }
+        String user = data.getUsername().toLowerCase(Locale.ROOT);
+        if (timeoutUntil > System.currentTimeMillis()) {
+            // last_ip is where the user last verified, not where the timeout came from, so only
+            // an IP that a live entry already carries is kept
+            ExpiringIndex.Entry current = byUser.get(user, System.currentTimeMillis());
+            deny(user, current != null ? current.getValue() : null, timeoutUntil);
+            return;
+        }
+        ExpiringIndex.Entry removed = byUser.get(user, Long.MIN_VALUE);
+        byUser.remove(user);
+        if (removed != null && removed.getValue() != null) {
+            byIP.removeIfValue(removed.getValue(), user);
+        }
+    }
+
+    /**
+     * Milliseconds left on the longest deny matching the username or IP, or 0 if neither is denied.
+     *
+     * @param ip address to check, or null to check the username only
+     */
+    public long getRemainingMillis(String username, String ip) {
+        long now = System.currentTimeMillis();
+        long deadline = 0L;
+        ExpiringIndex.Entry entry = byUser.get(username.toLowerCase(Locale.ROOT), now);
+        if (entry != null) {
+            deadline = entry.getDeadline();
+        }
+        if (ip != null && (entry = byIP.get(ip, now)) != null) {
+            deadline = Math.max(deadline, entry.getDeadline());
+        }
+        return deadline > now ? deadline - now : 0L;
+    }
+
+    public int expire() {
+        long now = System.currentTimeMillis();
+        return byIP.expire(now) + byUser.expire(now);
+    }
+
+    /** Drops snapshot entries that the store scan did not confirm. */
+    int dropUnconfirmed() {
+        return byIP.removeProvisional() + byUser.removeProvisional();
+    }
+
+    public int size() {
+        return byUser.size();
+    }
+
+    ExpiringIndex getByIP() { return byIP; }
+    ExpiringIndex getByUser() { return byUser; }
+}
@@ -0,0 +1,239 @@
+package com.melut.nomorebots.database;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * String-keyed map of deadlines. Lookups are a single hash probe plus a clock comparison, and
+ * expired keys are removed in deadline order by {@link #expire(long)}, so the sweep never scans
+ * live entries.
+ *
+ * <p>Every key has exactly one node in the deadline heap: the node remembers its heap slot, so
+ * replacing or removing a key fixes the heap in place instead of leaving a superseded node behind,
+ * and the heap never outgrows the map. Writes take the heap lock; reads never do.</p>
+ */
+public class ExpiringIndex {
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Binary min-heap on deadline, guarded by itself
+    private final Object heapLock = new Object();
+    private Entry[] heap = new Entry[16];
+    private int heapSize;
+
+    /** Adds or replaces the key, optionally carrying a value (e.g. the IP a user verified from). */
+    public void put(String key, long deadlineMillis, String value) {
+        put(key, deadlineMillis, value, false);
+    }
+
+    /**
+     * Adds an entry that is only trusted until {@link #removeProvisional()}, unless a regular
+     * {@link #put} confirms it first. Never replaces an existing entry.
+     */
+    void putProvisional(String key, long deadlineMillis, String value) {
+        put(key, deadlineMillis, value, true);
+    }
+
+    private void put(String key, long deadlineMillis, String value, boolean provisional) {
+        synchronized (heapLock) {
+            Entry current = entries.get(key);
+            if (current != null && (provisional || (!current.provisional
+                    && current.deadline == deadlineMillis && Objects.equals(current.value, value)))) {
+                return;
+            }
+            Entry entry = new Entry(key, deadlineMillis, value, provisional);
+            if (current != null) {
+                // Take over the old node's slot and move to where the new deadline belongs
+                entry.slot = current.slot;
+                current.slot = -1;
+                heap[entry.slot] = entry;
+                if (deadlineMillis < current.deadline) {
+                    siftUp(entry.slot);
+                } else if (deadlineMillis > current.deadline) {
+                    siftDown(entry.slot);
+                }
+            } else {
+                offer(entry);
+            }
+            entries.put(key, entry);
+        }
+    }
+
+    /** Live entry for the key, or null if absent or past its deadline. */
+    public Entry get(String key, long nowMillis) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.deadline > nowMillis ? entry : null;
+    }
+
+    public boolean contains(String key, long nowMillis) {
+        return get(key, nowMillis) != null;
+    }
+
+    public void remove(String key) {
+        synchronized (heapLock) {
+            Entry entry = entries.remove(key);
+            if (entry != null) {
+                removeAt(entry.slot);
+            }
+        }
+    }
+
+    /** Removes the key only if it currently carries the given value. */
+    public void removeIfValue(String key, String value) {
+        synchronized (heapLock) {
+            Entry entry = entries.get(key);
+            if (entry != null && value.equals(entry.value)) {
+                entries.remove(key);
+                removeAt(entry.slot);
+            }
+        }
+    }
+
+    /**
+     * Drops every provisional entry that no regular put has confirmed since it was added.
+     *
+     * @return number of keys removed
+     */
+    int removeProvisional() {
+        int removed = 0;
+        synchronized (heapLock) {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry.provisional) {
+                    iterator.remove();
+                    removeAt(entry.slot);
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Drops every entry whose deadline has passed.
+     *
+     * @return number of keys removed
+     */
+    public int expire(long nowMillis) {
+        int removed = 0;
+        synchronized (heapLock) {
+            while (heapSize > 0 && heap[0].deadline <= nowMillis) {
+                Entry head = heap[0];
+                removeAt(0);
+                entries.remove(head.key, head);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /** Visits every live entry. */
+    public void forEach(long nowMillis, BiConsumer<String, Entry> consumer) {
+        entries.forEach((key, entry) -> {
+            if (entry.deadline > nowMillis) {
+                consumer.accept(key, entry);
+            }
+        });
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /** Nodes in the deadline heap; always equal to {@link #size()} once writes have settled. */
+    int heapSize() {
+        synchronized (heapLock) {
+            return heapSize;
+        }
+    }
+
+    private void offer(Entry entry) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        }
+        entry.slot = heapSize;
+        heap[heapSize++] = entry;
+        siftUp(entry.slot);
+    }
+
+    private void removeAt(int slot) {
+        Entry removed = heap[slot];
+        removed.slot = -1;
+        int last = --heapSize;
+        if (slot != last) {
+            Entry moved = heap[last];
+            heap[slot] = moved;
+            moved.slot = slot;
+            heap[last] = null;
+            if (moved.deadline < removed.deadline) {
+                siftUp(slot);
+            } else {
+                siftDown(slot);
+            }
+        } else {
+            heap[last] = null;
+        }
+        if (heap.length > 16 && heapSize < heap.length / 4) {
+            heap = Arrays.copyOf(heap, heap.length / 2);
+        }
+    }
+
+    private void siftUp(int slot) {
+        Entry entry = heap[slot];
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            Entry above = heap[parent];
+            if (above.deadline <= entry.deadline) {
+                break;
+            }
+            heap[slot] = above;
+            above.slot = slot;
+            slot = parent;
+        }
+        heap[slot] = entry;
+        entry.slot = slot;
+    }
+
+    private void siftDown(int slot) {
+        Entry entry = heap[slot];
+        int half = heapSize >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < heapSize && heap[right].deadline < heap[child].deadline) {
+                child = right;
+            }
+            Entry below = heap[child];
+            if (entry.deadline <= below.deadline) {
+                break;
+            }
+            heap[slot] = below;
+            below.slot = slot;
+            slot = child;
+        }
+        heap[slot] = entry;
+        entry.slot = slot;
+    }
+
+    public static final class Entry {
+        private final String key;
+        private final long deadline;
+        private final String value;
+        private final boolean provisional;
+        // Position in the heap, -1 once removed; only touched under the heap lock
+        private int slot = -1;
+
+        private Entry(String key, long deadline, String value, boolean provisional) {
+            this.key = key;
+            this.deadline = deadline;
+            this.value = value;
+            this.provisional = provisional;
+        }
+
+        public long getDeadline() { return deadline; }
+        public String getValue() { return value; }
+    }
+}
@@ -0,0 +1,174 @@
+package com.melut.nomorebots.database;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Non-persistent backend for testing and for proxies that do not need state across restarts.
+ * Rows are copied on the way in and out so callers never share mutable state with the store.
+ */
+public class InMemoryPlayerStore implements PlayerStore {
+    private final Map<UUID, PlayerData> rows = new ConcurrentHashMap<>();
+    // Stands in for the updated_at column of the SQL backends
+    private final Map<UUID, Long> writtenAt = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    public InMemoryPlayerStore() {
+        this(System::currentTimeMillis);
+    }
+
+    InMemoryPlayerStore(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public String getName() {
+        return "memory";
+    }
+
+    @Override
+    public void init() {
+        // Nothing to set up
+    }
+
+    @Override
+    public int getReadConnections() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    @Override
+    public Optional<PlayerData> load(UUID uuid) {
+        PlayerData data = rows.get(uuid);
+        return data != null ? Optional.of(data.copy()) : Optional.empty();
+    }
+
+    @Override
+    public boolean create(UUID uuid, String username) {
+        if (rows.putIfAbsent(uuid, new PlayerData(uuid, username, false, 0, 0, null, false)) != null) {
+            return false;
+        }
+        writtenAt.put(uuid, clock.getAsLong());
+        return true;
+    }
+
+    @Override
+    public void upsertBatch(List<PlayerData> batch) {
+        long now = clock.getAsLong();
+        for (PlayerData data : batch) {
+            rows.put(data.getUuid(), data.copy());
+            writtenAt.put(data.getUuid(), now);
+        }
+    }
+
+    @Override
+    public boolean isIPVerified(String ip) {
+        long now = System.currentTimeMillis();
+        for (PlayerData data : rows.values()) {
+            if (ip.equals(data.getLastIP()) && data.getVerifiedUntil() != null && data.getVerifiedUntil().getTime() > now) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isUserVerified(String username) {
+        long now = System.currentTimeMillis();
+        for (PlayerData data : rows.values()) {
+            if (username.equals(data.getUsername()) && data.getVerifiedUntil() != null && data.getVerifiedUntil().getTime() > now) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public PlayerCounts count(long nowMillis) {
+        long total = 0;
+        long verified = 0;
+        long timedOut = 0;
+        for (PlayerData data : rows.values()) {
+            total++;
+            if (data.getVerifiedUntil() != null && data.getVerifiedUntil().getTime() > nowMillis) {
+                verified++;
+            }
+            if (data.getTimeoutUntil() != null && data.getTimeoutUntil().getTime() > nowMillis) {
+                timedOut++;
+            }
+        }
+        return new PlayerCounts(total, verified, timedOut);
+    }
+
+    @Override
+    public void scanVerified(long nowMillis, ActiveRowVisitor visitor) {
+        for (PlayerData data : rows.values()) {
+            if (data.getVerifiedUntil() != null && data.getVerifiedUntil().getTime() > nowMillis) {
+                visitor.visit(data.getUsername(), data.getLastIP(), data.getVerifiedUntil().getTime());
+            }
+        }
+    }
+
+    @Override
+    public void scanTimedOut(long nowMillis, ActiveRowVisitor visitor) {
+        for (PlayerData data : rows.values()) {
+            if (data.getTimeoutUntil() != null && data.getTimeoutUntil().getTime() > nowMillis) {
+                visitor.visit(data.getUsername(), data.getLastIP(), data.getTimeoutUntil().getTime());
+            }
+        }
+    }
+
+    // Same rules and key order as the SQL backends, which compare uuid as text
+    @Override
+    public PruneBatch pruneInactive(UUID after, int retentionDays, long nowMillis, int limit) {
+        String from = after == null ? "" : after.toString();
+        long cutoff = clock.getAsLong() - TimeUnit.DAYS.toMillis(retentionDays);
+        List<UUID> candidates = new ArrayList<>();
+        for (Map.Entry<UUID, PlayerData> row : rows.entrySet()) {
+            if (row.getKey().toString().compareTo(from) > 0 && isPrunable(row.getValue(), cutoff, nowMillis)) {
+                candidates.add(row.getKey());
+            }
+        }
+        if (candidates.isEmpty()) {
+            return new PruneBatch(List.of(), null);
+        }
+        candidates.sort((a, b) -> a.toString().compareTo(b.toString()));
+        if (candidates.size() > limit) {
+            candidates = candidates.subList(0, limit);
+        }
+
+        List<UUID> deleted = new ArrayList<>(candidates.size());
+        for (UUID uuid : candidates) {
+            PlayerData data = rows.get(uuid);
+            // Checked again in case the row was written in between
+            if (data != null && isPrunable(data, cutoff, nowMillis) && rows.remove(uuid, data)) {
+                writtenAt.remove(uuid);
+                deleted.add(uuid);
+            }
+        }
+        UUID next = candidates.size() < limit ? null : candidates.get(candidates.size() - 1);
+        return new PruneBatch(deleted, next);
+    }
+
+    private boolean isPrunable(PlayerData data, long cutoff, long nowMillis) {
+        Long written = writtenAt.get(data.getUuid());
+        return written != null && written < cutoff && !data.isVerified() && data.getVerifiedUntil() == null
+                && !data.isBypassGranted() && (data.getTimeoutUntil() == null || data.getTimeoutUntil().getTime() < nowMillis);
+    }
+
+    @Override
+    public long compact(int maxPages) {
+        return 0;
+    }
+
+    @Override
+    public void close() {
+        rows.clear();
+        writtenAt.clear();
+    }
+}
@@ -0,0 +1,192 @@
+package com.melut.nomorebots.database;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Binary checkpoint of the verified and deny indexes, so a restarted proxy can answer cooldown
+ * and timeout checks before the store has been scanned.
+ *
+ * <p>Layout: a 24-byte header (magic, version, payload length, CRC32 of the payload, save time)
+ * followed by four sections, one per {@link ExpiringIndex}. Each section is an entry count and
+ * then {@code key, value, deadline} per entry, strings as a length-prefixed UTF-8 run with
+ * length -1 for null. The file is written to a temporary sibling and moved into place, and read
+ * back into a heap buffer in one pass, so no mapping keeps the file locked against the next
+ * move on Windows; a wrong magic, version, length or checksum rejects the whole file.</p>
+ */
+final class IndexSnapshot {
+    private static final int MAGIC = 0x4E4D4253; // "NMBS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+
+    private IndexSnapshot() {
+    }
+
+    /** Sections in file order. */
+    private static ExpiringIndex[] sections(VerifiedIndex verified, DenyIndex deny) {
+        return new ExpiringIndex[]{verified.getByIP(), verified.getByUser(), deny.getByIP(), deny.getByUser()};
+    }
+
+    /** @return number of entries written */
+    static int save(Path file, VerifiedIndex verified, DenyIndex deny) throws IOException {
+        long now = System.currentTimeMillis();
+        Buffer payload = new Buffer();
+        int written = 0;
+        for (ExpiringIndex section : sections(verified, deny)) {
+            int countPosition = payload.reserveInt();
+            int[] count = {0};
+            section.forEach(now, (key, entry) -> {
+                payload.putString(key);
+                payload.putString(entry.getValue());
+                payload.putLong(entry.getDeadline());
+                count[0]++;
+            });
+            payload.setInt(countPosition, count[0]);
+            written += count[0];
+        }
+
+        ByteBuffer body = payload.flip();
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(body.remaining())
+                .putInt((int) crc.getValue())
+                .putLong(now);
+        header.flip();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining() || body.hasRemaining()) {
+                channel.write(new ByteBuffer[]{header, body});
+            }
+            channel.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return written;
+    }
+
+    /**
+     * Fills the indexes from the file, skipping entries that expired while the proxy was down.
+     * Entries are added as provisional, to be confirmed or dropped by the store scan.
+     *
+     * @return number of entries loaded
+     * @throws IOException if the file cannot be read or fails validation; nothing is loaded then
+     */
+    static int load(Path file, VerifiedIndex verified, DenyIndex deny) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot has an invalid size of " + size + " bytes");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Snapshot is truncated");
+                }
+            }
+            buffer.flip();
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a snapshot file");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            buffer.getLong(); // save time, informational
+            if (length != size - HEADER_BYTES) {
+                throw new IOException("Snapshot is truncated");
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+
+            // Validated as a whole before anything is inserted
+            long now = System.currentTimeMillis();
+            int loaded = 0;
+            for (ExpiringIndex section : sections(verified, deny)) {
+                int count = buffer.getInt();
+                for (int i = 0; i < count; i++) {
+                    String key = getString(buffer);
+                    String value = getString(buffer);
+                    long deadline = buffer.getLong();
+                    if (key != null && deadline > now) {
+                        section.putProvisional(key, deadline, value);
+                        loaded++;
+                    }
+                }
+            }
+            return loaded;
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Growable heap buffer for the payload
+    private static final class Buffer {
+        private ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+        }
+
+        int reserveInt() {
+            ensure(4);
+            int position = buffer.position();
+            buffer.putInt(0);
+            return position;
+        }
+
+        void setInt(int position, int value) {
+            buffer.putInt(position, value);
+        }
+
+        void putLong(long value) {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        void putString(String value) {
+            if (value == null) {
+                ensure(4);
+                buffer.putInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensure(4 + bytes.length);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+
+        ByteBuffer flip() {
+            buffer.flip();
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.melut.nomorebots.database;
+
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Shared JDBC logic for the SQL backends. Subclasses supply connections and the
+ * dialect-specific statements (schema, insert-if-absent and upsert).
+ */
+abstract class JdbcPlayerStore implements PlayerStore {
+    protected static final String TABLE = "player_verification";
+    protected static final String COLUMNS =
+            "uuid, username, verification_status, total_attempts, failed_attempts, " +
+            "timeout_until, bypass_granted, last_ip, verified_until";
+
+    private static final String LOAD_SQL = "SELECT " + COLUMNS + " FROM " + TABLE + " WHERE uuid = ?";
+
+    /**
+     * Queries on the login path and at startup. Each one must be answered from an index, which
+     * the SQLite store test checks against the migrated schema.
+     */
+    protected static final List<String> HOT_QUERIES = List.of(
+            LOAD_SQL,
+            existsVerifiedSql("username"),
+            existsVerifiedSql("last_ip"),
+            scanActiveSql("verified_until"),
+            scanActiveSql("timeout_until"));
+
+    protected final Logger logger;
+
+    protected JdbcPlayerStore(Logger logger) {
+        this.logger = logger;
+    }
+
+    /** Runs a read-only query on a connection that may be shared with other readers. */
+    protected abstract <T> T read(ConnectionPool.SqlFunction<T> query) throws SQLException;
+
+    /** Runs a statement on the writer connection. Only called from the writer thread. */
+    protected abstract <T> T write(ConnectionPool.SqlFunction<T> statement) throws SQLException;
+
+    protected abstract String insertIgnoreSql();
+
+    protected abstract String upsertSql();
+
+    /** SQL expression for the current time minus the given number of days, compared to {@code updated_at}. */
+    protected abstract String daysAgoSql(int days);
+
+    @Override
+    public Optional<PlayerData> load(UUID uuid) throws SQLException {
+        return read(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(LOAD_SQL)) {
+                pstmt.setString(1, uuid.toString());
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        return Optional.of(new PlayerData(
+                                UUID.fromString(rs.getString("uuid")),
+                                rs.getString("username"),
+                                rs.getInt("verification_status") == 1,
+                                rs.getInt("total_attempts"),
+                                rs.getInt("failed_attempts"),
+                                rs.getTimestamp("timeout_until"),
+                                rs.getBoolean("bypass_granted"),
+                                rs.getString("last_ip"),
+                                rs.getTimestamp("verified_until")
+                        ));
+                    }
+                }
+            }
+            return Optional.empty();
+        });
+    }
+
+    @Override
+    public boolean create(UUID uuid, String username) throws SQLException {
+        return write(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(insertIgnoreSql())) {
+                pstmt.setString(1, uuid.toString());
+                pstmt.setString(2, username);
+                return pstmt.executeUpdate() > 0;
+            }
+        });
+    }
+
+    @Override
+    public void upsertBatch(List<PlayerData> batch) throws SQLException {
+        write(conn -> {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(upsertSql())) {
+                for (PlayerData data : batch) {
+                    pstmt.setString(1, data.getUuid().toString());
+                    pstmt.setString(2, data.getUsername());
+                    pstmt.setInt(3, data.isVerified() ? 1 : 0);
+                    pstmt.setInt(4, data.getTotalAttempts());
+                    pstmt.setInt(5, data.getFailedAttempts());
+                    pstmt.setTimestamp(6, data.getTimeoutUntil());
+                    pstmt.setBoolean(7, data.isBypassGranted());
+                    pstmt.setString(8, data.getLastIP());
+                    pstmt.setTimestamp(9, data.getVerifiedUntil());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                conn.commit();
+                return null;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        });
+    }
+
+    @Override
+    public boolean isIPVerified(String ip) throws SQLException {
+        return existsVerified("last_ip", ip);
+    }
+
+    @Override
+    public boolean isUserVerified(String username) throws SQLException {
+        return existsVerified("username", username);
+    }
+
+    @Override
+    public PlayerCounts count(long nowMillis) throws SQLException {
+        return read(conn -> {
+            String sql = "SELECT COUNT(*),"
+                    + " SUM(CASE WHEN verified_until > ? THEN 1 ELSE 0 END),"
+                    + " SUM(CASE WHEN timeout_until > ? THEN 1 ELSE 0 END) FROM " + TABLE;
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                Timestamp now = new Timestamp(nowMillis);
+                pstmt.setTimestamp(1, now);
+                pstmt.setTimestamp(2, now);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    rs.next();
+                    return new PlayerCounts(rs.getLong(1), rs.getLong(2), rs.getLong(3));
+                }
+            }
+        });
+    }
+
+    @Override
+    public void scanVerified(long nowMillis, ActiveRowVisitor visitor) throws SQLException {
+        scanActive("verified_until", nowMillis, visitor);
+    }
+
+    @Override
+    public void scanTimedOut(long nowMillis, ActiveRowVisitor visitor) throws SQLException {
+        scanActive("timeout_until", nowMillis, visitor);
+    }
+
+    private void scanActive(String column, long nowMillis, ActiveRowVisitor visitor) throws SQLException {
+        read(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(scanActiveSql(column))) {
+                pstmt.setTimestamp(1, new Timestamp(nowMillis));
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        visitor.visit(rs.getString(1), rs.getString(2), rs.getTimestamp(3).getTime());
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public PruneBatch pruneInactive(UUID after, int retentionDays, long nowMillis, int limit) throws SQLException {
+        String condition = " verification_status = 0 AND verified_until IS NULL AND bypass_granted = ?"
+                + " AND (timeout_until IS NULL OR timeout_until < ?) AND updated_at < " + daysAgoSql(retentionDays);
+        return write(conn -> {
+            List<String> candidates = new ArrayList<>(limit);
+            String select = "SELECT uuid FROM " + TABLE + " WHERE uuid > ? AND" + condition + " ORDER BY uuid LIMIT ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(select)) {
+                pstmt.setString(1, after == null ? "" : after.toString());
+                pstmt.setBoolean(2, false);
+                pstmt.setTimestamp(3, new Timestamp(nowMillis));
+                pstmt.setInt(4, limit);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        candidates.add(rs.getString(1));
+                    }
+                }
+            }
+            if (candidates.isEmpty()) {
+                return new PruneBatch(Collections.emptyList(), null);
+            }
+
+            // The condition is checked again in case another proxy touched a row in between
+            List<UUID> deleted = new ArrayList<>(candidates.size());
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM " + TABLE + " WHERE uuid = ? AND" + condition)) {
+                for (String uuid : candidates) {
+                    pstmt.setString(1, uuid);
+                    pstmt.setBoolean(2, false);
+                    pstmt.setTimestamp(3, new Timestamp(nowMillis));
+                    pstmt.addBatch();
+                }
+                int[] results = pstmt.executeBatch();
+                conn.commit();
+                for (int i = 0; i < results.length; i++) {
+                    if (results[i] > 0 || results[i] == Statement.SUCCESS_NO_INFO) {
+                        deleted.add(UUID.fromString(candidates.get(i)));
+                    }
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+            UUID next = candidates.size() < limit ? null : UUID.fromString(candidates.get(candidates.size() - 1));
+            return new PruneBatch(deleted, next);
+        });
+    }
+
+    @Override
+    public long compact(int maxPages) throws SQLException {
+        // Server databases reuse freed pages on their own
+        return 0;
+    }
+
+    private static String scanActiveSql(String column) {
+        return "SELECT username, last_ip, " + column + " FROM " + TABLE + " WHERE " + column + " > ?";
+    }
+
+    private static String existsVerifiedSql(String column) {
+        return "SELECT verified_until FROM " + TABLE + " WHERE " + column + " = ? AND verified_until > ?";
+    }
+
+    // The current time is bound as a parameter so the comparison works the same in every dialect
+    private boolean existsVerified(String column, String value) throws SQLException {
+        return read(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(existsVerifiedSql(column))) {
+                pstmt.setString(1, value);
+                pstmt.setTimestamp(2, new Timestamp(System.currentTimeMillis()));
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next();
+                }
+            }
+        });
+    }
+
+    // The plugin class loader is not visible to DriverManager's service lookup
+    protected static void loadDriver(String className) throws SQLException {
+        try {
+            Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("JDBC driver not found: " + className, e);
+        }
+    }
+
+    protected static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // Closing anyway
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.melut.nomorebots.database;
+
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * MySQL / MariaDB backend on a fixed connection pool. Several proxies can share one database;
+ * writes still go through the single writer thread of each proxy, reads use the whole pool.
+ */
+public class MySqlPlayerStore extends JdbcPlayerStore {
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int poolSize;
+    private ConnectionPool pool;
+
+    public MySqlPlayerStore(Logger logger, String url, String username, String password, int poolSize) {
+        super(logger);
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.poolSize = Math.max(2, poolSize);
+    }
+
+    /** Builds the JDBC URL for the bundled MariaDB driver, which also speaks to MySQL servers. */
+    public static String buildUrl(String host, int port, String database) {
+        return "jdbc:mariadb://" + host + ":" + port + "/" + database + "?useBulkStmts=true";
+    }
+
+    @Override
+    public String getName() {
+        return "mysql (" + poolSize + " connections)";
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    @Override
+    public void init() throws SQLException {
+        loadDriver("org.mariadb.jdbc.Driver");
+        pool = new ConnectionPool(() -> DriverManager.getConnection(url, username, password), poolSize, 10_000);
+
+        pool.withConnection(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE IF NOT EXISTS player_verification (" +
+                        "uuid VARCHAR(36) NOT NULL PRIMARY KEY, " +
+                        "username VARCHAR(16) NOT NULL, " +
+                        "first_join TIMESTAMP NULL DEFAULT CURRENT_TIMESTAMP, " +
+                        "last_verification TIMESTAMP NULL, " +
+                        "verification_status INT DEFAULT 0, " +
+                        "total_attempts INT DEFAULT 0, " +
+                        "failed_attempts INT DEFAULT 0, " +
+                        "success_count INT DEFAULT 0, " +
+                        "timeout_until TIMESTAMP NULL, " +
+                        "remember_until TIMESTAMP NULL, " +
+                        "bypass_granted BOOLEAN DEFAULT FALSE, " +
+                        "last_ip VARCHAR(45), " +
+                        "verified_until TIMESTAMP NULL, " +
+                        "created_at TIMESTAMP NULL DEFAULT CURRENT_TIMESTAMP, " +
+                        "updated_at TIMESTAMP NULL DEFAULT CURRENT_TIMESTAMP" +
+                        ")");
+            }
+            SchemaMigrations.apply(conn, migrations(), logger);
+            return null;
+        });
+    }
+
+    // MySQL has no IF [NOT] EXISTS for indexes, so existence is checked against the metadata
+    private List<SchemaMigrations.Migration> migrations() {
+        return List.of(
+                new SchemaMigrations.Migration(1, "Replace single-column indexes with login-path indexes", conn -> {
+                    try (Statement stmt = conn.createStatement()) {
+                        // (last_ip, verified_until) serves last_ip lookups on its own
+                        if (indexExists(conn, "idx_player_ip")) {
+                            stmt.execute("DROP INDEX idx_player_ip ON " + TABLE);
+                        }
+                        createIndex(conn, stmt, "idx_player_username_verified", "username, verified_until");
+                        createIndex(conn, stmt, "idx_player_ip_verified", "last_ip, verified_until");
+                        createIndex(conn, stmt, "idx_player_verified_scan", "verified_until, username, last_ip");
+                        createIndex(conn, stmt, "idx_player_timeout_scan", "timeout_until, username, last_ip");
+                    }
+                    return null;
+                }));
+    }
+
+    private void createIndex(Connection conn, Statement stmt, String indexName, String columns) throws SQLException {
+        if (!indexExists(conn, indexName)) {
+            stmt.execute("CREATE INDEX " + indexName + " ON " + TABLE + "(" + columns + ")");
+        }
+    }
+
+    private boolean indexExists(Connection conn, String indexName) throws SQLException {
+        DatabaseMetaData dbm = conn.getMetaData();
+        try (ResultSet indexes = dbm.getIndexInfo(conn.getCatalog(), null, TABLE, false, false)) {
+            while (indexes.next()) {
+                if (indexName.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int getReadConnections() {
+        // Keep one connection free for the writer
+        return poolSize - 1;
+    }
+
+    @Override
+    protected <T> T read(ConnectionPool.SqlFunction<T> query) throws SQLException {
+        return pool.withConnection(query);
+    }
+
+    @Override
+    protected <T> T write(ConnectionPool.SqlFunction<T> statement) throws SQLException {
+        return pool.withConnection(statement);
+    }
+
+    @Override
+    protected String insertIgnoreSql() {
+        return "INSERT IGNORE INTO " + TABLE + " (uuid, username) VALUES (?, ?)";
+    }
+
+    @Override
+    protected String upsertSql() {
+        return "INSERT INTO " + TABLE + " (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE " +
+                "username = VALUES(username), " +
+                "verification_status = VALUES(verification_status), " +
+                "total_attempts = VALUES(total_attempts), " +
+                "failed_attempts = VALUES(failed_attempts), " +
+                "timeout_until = VALUES(timeout_until), " +
+                "bypass_granted = VALUES(bypass_granted), " +
+                "last_ip = VALUES(last_ip), " +
+                "verified_until = VALUES(verified_until), " +
+                "updated_at = CURRENT_TIMESTAMP";
+    }
+
+    @Override
+    protected String daysAgoSql(int days) {
+        // Quoted count, which MySQL accepts and standard SQL (and H2 in the tests) requires
+        return "(NOW() - INTERVAL '" + days + "' DAY)";
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+}
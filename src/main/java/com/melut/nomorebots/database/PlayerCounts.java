@@ -0,0 +1,18 @@
+package com.melut.nomorebots.database;
+
+/** Row totals for {@code /nmb stats}. */
+public final class PlayerCounts {
+    private final long total;
+    private final long verified;
+    private final long timedOut;
+
+    public PlayerCounts(long total, long verified, long timedOut) {
+        this.total = total;
+        this.verified = verified;
+        this.timedOut = timedOut;
+    }
+
+    public long getTotal() { return total; }
+    public long getVerified() { return verified; }
+    public long getTimedOut() { return timedOut; }
+}
@@ -34,6 +34,12 @@ public class PlayerData {
         this(uuid, username, verified, totalAttempts, failedAttempts, timeoutUntil, bypassGranted, null, null);
     }
 
+    public PlayerData copy() {
+        return new PlayerData(uuid, username, verified, totalAttempts, failedAttempts,
+                timeoutUntil == null ? null : new Timestamp(timeoutUntil.getTime()), bypassGranted, lastIP,
+                verifiedUntil == null ? null : new Timestamp(verifiedUntil.getTime()));
+    }
+
     public UUID getUuid() {
         return uuid;
     }
@@ -0,0 +1,198 @@
+package com.melut.nomorebots.database;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Size-bounded, expiring player cache. Entries are spread over segments, each an access-ordered
+ * map with its own lock and weight budget, so eviction is LRU per segment. UUIDs without a row
+ * are cached as negative entries with a shorter lifetime, and concurrent misses for one UUID
+ * share a single load. A put or invalidate for a UUID detaches its in-flight load, so a load
+ * that started before the write can still answer its callers but never replaces what the write
+ * left in the cache.
+ */
+class PlayerDataCache {
+    private static final int SEGMENTS = 16;
+    private static final int POSITIVE_WEIGHT = 4;
+    private static final int NEGATIVE_WEIGHT = 1;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final Map<UUID, CompletableFuture<Optional<PlayerData>>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    PlayerDataCache(long maxWeight, long ttlMillis, long negativeTtlMillis) {
+        long segmentWeight = Math.max(POSITIVE_WEIGHT, maxWeight / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentWeight);
+        }
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.negativeTtlNanos = negativeTtlMillis * 1_000_000L;
+    }
+
+    /**
+     * Returns the cached lookup result without loading: a present or empty Optional for a
+     * positive or negative hit, or null when nothing usable is cached.
+     */
+    Optional<PlayerData> getIfPresent(UUID uuid) {
+        Entry entry = segmentFor(uuid).get(uuid, System.nanoTime());
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return Optional.ofNullable(entry.data);
+    }
+
+    /** Cached result, or a load shared by every concurrent caller for the same UUID. */
+    CompletableFuture<Optional<PlayerData>> get(UUID uuid, Function<UUID, CompletableFuture<Optional<PlayerData>>> loader) {
+        Optional<PlayerData> cached = getIfPresent(uuid);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<Optional<PlayerData>> created = new CompletableFuture<>();
+        CompletableFuture<Optional<PlayerData>> existing = inFlight.putIfAbsent(uuid, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        loader.apply(uuid).whenComplete((result, throwable) -> {
+            if (throwable == null) {
+                long now = System.nanoTime();
+                Entry entry = result.isPresent()
+                        ? new Entry(result.get(), now + ttlNanos, POSITIVE_WEIGHT)
+                        : new Entry(null, now + negativeTtlNanos, NEGATIVE_WEIGHT);
+                segmentFor(uuid).install(uuid, entry, created);
+            } else {
+                inFlight.remove(uuid, created);
+            }
+            if (throwable != null) {
+                created.completeExceptionally(throwable);
+            } else {
+                created.complete(result);
+            }
+        });
+        return created;
+    }
+
+    void put(PlayerData data) {
+        segmentFor(data.getUuid()).put(data.getUuid(), new Entry(data, System.nanoTime() + ttlNanos, POSITIVE_WEIGHT));
+    }
+
+    void putNegative(UUID uuid) {
+        segmentFor(uuid).put(uuid, new Entry(null, System.nanoTime() + negativeTtlNanos, NEGATIVE_WEIGHT));
+    }
+
+    void invalidate(UUID uuid) {
+        segmentFor(uuid).remove(uuid, false);
+    }
+
+    /** Drops a cached "no row" result, used once the row is known to exist. */
+    void invalidateNegative(UUID uuid) {
+        segmentFor(uuid).remove(uuid, true);
+    }
+
+    long getHitCount() { return hits.sum(); }
+    long getMissCount() { return misses.sum(); }
+    long getEvictionCount() { return evictions.sum(); }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private Segment segmentFor(UUID uuid) {
+        int hash = uuid.hashCode();
+        hash ^= hash >>> 16;
+        return segments[hash & (SEGMENTS - 1)];
+    }
+
+    private static final class Entry {
+        private final PlayerData data; // null for a negative entry
+        private final long expiresAt;
+        private final int weight;
+
+        Entry(PlayerData data, long expiresAt, int weight) {
+            this.data = data;
+            this.expiresAt = expiresAt;
+            this.weight = weight;
+        }
+    }
+
+    private final class Segment {
+        private final LinkedHashMap<UUID, Entry> map = new LinkedHashMap<>(16, 0.75f, true);
+        private final long maxWeight;
+        private long weight;
+
+        Segment(long maxWeight) {
+            this.maxWeight = maxWeight;
+        }
+
+        synchronized Entry get(UUID uuid, long now) {
+            Entry entry = map.get(uuid);
+            if (entry != null && entry.expiresAt - now <= 0) {
+                map.remove(uuid);
+                weight -= entry.weight;
+                return null;
+            }
+            return entry;
+        }
+
+        synchronized void put(UUID uuid, Entry entry) {
+            inFlight.remove(uuid);
+            store(uuid, entry);
+        }
+
+        /** Installs a load result unless a put or invalidate detached the load meanwhile. */
+        synchronized void install(UUID uuid, Entry entry, CompletableFuture<Optional<PlayerData>> load) {
+            if (inFlight.remove(uuid, load)) {
+                store(uuid, entry);
+            }
+        }
+
+        private void store(UUID uuid, Entry entry) {
+            Entry old = map.put(uuid, entry);
+            if (old != null) {
+                weight -= old.weight;
+            }
+            weight += entry.weight;
+
+            // Least recently used entries go first
+            Iterator<Entry> iterator = map.values().iterator();
+            while (weight > maxWeight && iterator.hasNext()) {
+                Entry eldest = iterator.next();
+                iterator.remove();
+                weight -= eldest.weight;
+                evictions.increment();
+            }
+        }
+
+        synchronized void remove(UUID uuid, boolean onlyNegative) {
+            inFlight.remove(uuid);
+            Entry old = map.get(uuid);
+            if (old != null && (!onlyNegative || old.data == null)) {
+                map.remove(uuid);
+                weight -= old.weight;
+            }
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+    }
+}
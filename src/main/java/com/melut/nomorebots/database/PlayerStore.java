@@ -0,0 +1,93 @@
+package com.melut.nomorebots.database;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Storage backend for player verification rows. Implementations are synchronous; threading is
+ * owned by {@link DatabaseManager}, which runs every write on one writer thread and reads on
+ * up to {@link #getReadConnections()} threads.
+ */
+public interface PlayerStore extends AutoCloseable {
+
+    /** Short name used in logs, e.g. "sqlite". */
+    String getName();
+
+    /** Creates or upgrades the schema. Called once before any other method. */
+    void init() throws SQLException;
+
+    /**
+     * Number of reads that may run concurrently with the writer. Zero means reads must be
+     * serialized with writes on the writer thread.
+     */
+    int getReadConnections();
+
+    /**
+     * True when other proxies write the same rows, so a cached row may go stale as soon as its
+     * player leaves this proxy.
+     */
+    default boolean isShared() {
+        return false;
+    }
+
+    Optional<PlayerData> load(UUID uuid) throws SQLException;
+
+    /**
+     * Inserts a fresh row if none exists for this UUID.
+     *
+     * @return true if a row was inserted, false if one already existed
+     */
+    boolean create(UUID uuid, String username) throws SQLException;
+
+    /** Writes every row in one transaction, inserting rows that do not exist yet. */
+    void upsertBatch(List<PlayerData> batch) throws SQLException;
+
+    boolean isIPVerified(String ip) throws SQLException;
+
+    boolean isUserVerified(String username) throws SQLException;
+
+    /** Counts all rows, rows in a verification cooldown and rows in a timeout at the given time. */
+    PlayerCounts count(long nowMillis) throws SQLException;
+
+    /** Visits every row whose {@code verified_until} is after the given time. */
+    void scanVerified(long nowMillis, ActiveRowVisitor visitor) throws SQLException;
+
+    /** Visits every row whose {@code timeout_until} is after the given time. */
+    void scanTimedOut(long nowMillis, ActiveRowVisitor visitor) throws SQLException;
+
+    /**
+     * Deletes up to {@code limit} rows that were never verified, hold no bypass or active timeout
+     * and were last written more than {@code retentionDays} ago, walking the keys after
+     * {@code after} in order so consecutive calls never revisit a key.
+     *
+     * @param after key to continue after, or null to start at the beginning
+     */
+    PruneBatch pruneInactive(UUID after, int retentionDays, long nowMillis, int limit) throws SQLException;
+
+    /**
+     * Returns up to {@code maxPages} free pages to the file system.
+     *
+     * @return bytes reclaimed; 0 once nothing is left or if the backend has nothing to do
+     */
+    long compact(int maxPages) throws SQLException;
+
+    @Override
+    void close();
+
+    final class PruneBatch {
+        public final List<UUID> deleted;
+        /** Key to continue after, or null once the last key was visited. */
+        public final UUID next;
+
+        public PruneBatch(List<UUID> deleted, UUID next) {
+            this.deleted = deleted;
+            this.next = next;
+        }
+    }
+
+    interface ActiveRowVisitor {
+        void visit(String username, String ip, long untilMillis);
+    }
+}
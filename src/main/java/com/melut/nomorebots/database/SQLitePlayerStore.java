@@ -0,0 +1,223 @@
+package com.melut.nomorebots.database;
+
+import org.slf4j.Logger;
+import org.sqlite.SQLiteConfig;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * SQLite backend. In WAL mode there is one writer connection plus a pool of read-only
+ * connections; otherwise the single connection serves both and reads run on the writer thread.
+ */
+public class SQLitePlayerStore extends JdbcPlayerStore {
+    // Rebuilding a larger file at startup would hold up the proxy for too long
+    private static final long VACUUM_ON_MIGRATION_MAX_BYTES = 64L * 1024 * 1024;
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+
+    private final String url;
+    private final boolean wal;
+    private final String synchronous;
+    private final int busyTimeout;
+    private final int readConnections;
+    private Connection connection;
+    private ConnectionPool readPool;
+
+    public SQLitePlayerStore(Logger logger, File dbFile, boolean wal, String synchronous, int busyTimeout, int readConnections) {
+        super(logger);
+        if (!dbFile.getParentFile().exists()) {
+            dbFile.getParentFile().mkdirs();
+        }
+        this.url = "jdbc:sqlite:" + dbFile.getAbsolutePath();
+        this.wal = wal;
+        this.synchronous = synchronous;
+        this.busyTimeout = busyTimeout;
+        this.readConnections = wal ? Math.max(1, readConnections) : 0;
+    }
+
+    @Override
+    public String getName() {
+        return wal ? "sqlite (WAL, " + readConnections + " readers)" : "sqlite";
+    }
+
+    @Override
+    public void init() throws SQLException {
+        loadDriver("org.sqlite.JDBC");
+        connection = open(false, wal);
+
+        try (Statement stmt = connection.createStatement()) {
+            String sql = "CREATE TABLE IF NOT EXISTS player_verification (" +
+                    "uuid VARCHAR(36) PRIMARY KEY, " +
+                    "username VARCHAR(16) NOT NULL, " +
+                    "first_join TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                    "last_verification TIMESTAMP, " +
+                    "verification_status INTEGER DEFAULT 0, " +
+                    "total_attempts INTEGER DEFAULT 0, " +
+                    "failed_attempts INTEGER DEFAULT 0, " +
+                    "success_count INTEGER DEFAULT 0, " +
+                    "timeout_until TIMESTAMP NULL, " +
+                    "remember_until TIMESTAMP NULL, " +
+                    "bypass_granted BOOLEAN DEFAULT 0, " +
+                    "last_ip VARCHAR(45), " +  // IPv6 support
+                    "verified_until TIMESTAMP NULL, " + // IP + User based cooldown
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                    "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ");";
+            stmt.execute(sql);
+
+            // Add new columns to existing table if not present
+            addColumnIfNotExists(stmt, "player_verification", "last_ip", "VARCHAR(45)");
+            addColumnIfNotExists(stmt, "player_verification", "verified_until", "TIMESTAMP NULL");
+        }
+        SchemaMigrations.apply(connection, migrations(), logger);
+
+        // In WAL mode readers never block the writer, so they get their own connections
+        if (wal) {
+            readPool = new ConnectionPool(() -> open(true, false), readConnections, busyTimeout);
+        }
+    }
+
+    // Indexes live here rather than in the CREATE TABLE above so existing files get them too
+    private List<SchemaMigrations.Migration> migrations() {
+        return List.of(
+                SchemaMigrations.Migration.of(1, "Replace single-column indexes with login-path indexes",
+                        // The primary key already indexes uuid, and (last_ip, verified_until) serves last_ip lookups
+                        "DROP INDEX IF EXISTS idx_player_uuid",
+                        "DROP INDEX IF EXISTS idx_player_ip",
+                        "CREATE INDEX IF NOT EXISTS idx_player_username_verified ON " + TABLE + "(username, verified_until)",
+                        "CREATE INDEX IF NOT EXISTS idx_player_ip_verified ON " + TABLE + "(last_ip, verified_until)",
+                        // Covering the index scans at startup, so they never touch the table
+                        "CREATE INDEX IF NOT EXISTS idx_player_verified_scan ON " + TABLE + "(verified_until, username, last_ip)",
+                        "CREATE INDEX IF NOT EXISTS idx_player_timeout_scan ON " + TABLE + "(timeout_until, username, last_ip)"),
+                SchemaMigrations.Migration.outsideTransaction(2, "Enable incremental vacuum", this::enableIncrementalVacuum));
+    }
+
+    /**
+     * auto_vacuum only changes when the file is rebuilt. Small files are vacuumed right here; a
+     * larger one is left as it is with a note, since VACUUM copies the whole database and would
+     * stall startup. Until it is vacuumed, {@link #compact} simply does nothing.
+     */
+    private Void enableIncrementalVacuum(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            if (pragma(stmt, "auto_vacuum") == AUTO_VACUUM_INCREMENTAL) {
+                return null;
+            }
+            stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+            long bytes = pragma(stmt, "page_count") * pragma(stmt, "page_size");
+            if (bytes <= VACUUM_ON_MIGRATION_MAX_BYTES) {
+                stmt.execute("VACUUM");
+            } else {
+                logger.warn("The database is " + (bytes / (1024 * 1024)) + " MB, too large to rebuild at startup. "
+                        + "To let the retention job return freed space, stop the proxy once and run "
+                        + "'PRAGMA auto_vacuum = INCREMENTAL; VACUUM;' on it.");
+            }
+        }
+        return null;
+    }
+
+    private Connection open(boolean readOnly, boolean walMode) throws SQLException {
+        SQLiteConfig sqliteConfig = new SQLiteConfig();
+        sqliteConfig.setBusyTimeout(busyTimeout);
+        if (walMode) {
+            sqliteConfig.setJournalMode(SQLiteConfig.JournalMode.WAL);
+            sqliteConfig.setSynchronous(SQLiteConfig.SynchronousMode.valueOf(synchronous));
+        }
+        if (readOnly) {
+            sqliteConfig.setReadOnly(true);
+        }
+        return DriverManager.getConnection(url, sqliteConfig.toProperties());
+    }
+
+    @Override
+    public int getReadConnections() {
+        return readConnections;
+    }
+
+    @Override
+    protected <T> T read(ConnectionPool.SqlFunction<T> query) throws SQLException {
+        if (readPool == null) {
+            return query.apply(connection);
+        }
+        return readPool.withConnection(query);
+    }
+
+    @Override
+    protected <T> T write(ConnectionPool.SqlFunction<T> statement) throws SQLException {
+        return statement.apply(connection);
+    }
+
+    @Override
+    protected String insertIgnoreSql() {
+        return "INSERT OR IGNORE INTO " + TABLE + " (uuid, username) VALUES (?, ?)";
+    }
+
+    @Override
+    protected String upsertSql() {
+        return "INSERT INTO " + TABLE + " (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                "ON CONFLICT(uuid) DO UPDATE SET " +
+                "username = excluded.username, " +
+                "verification_status = excluded.verification_status, " +
+                "total_attempts = excluded.total_attempts, " +
+                "failed_attempts = excluded.failed_attempts, " +
+                "timeout_until = excluded.timeout_until, " +
+                "bypass_granted = excluded.bypass_granted, " +
+                "last_ip = excluded.last_ip, " +
+                "verified_until = excluded.verified_until, " +
+                "updated_at = CURRENT_TIMESTAMP";
+    }
+
+    @Override
+    protected String daysAgoSql(int days) {
+        // Same text format CURRENT_TIMESTAMP writes into updated_at
+        return "datetime('now', '-" + days + " days')";
+    }
+
+    @Override
+    public long compact(int maxPages) throws SQLException {
+        return write(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                long freeBefore = pragma(stmt, "freelist_count");
+                if (freeBefore == 0 || pragma(stmt, "auto_vacuum") != AUTO_VACUUM_INCREMENTAL) {
+                    return 0L;
+                }
+                stmt.execute("PRAGMA incremental_vacuum(" + maxPages + ")");
+                return (freeBefore - pragma(stmt, "freelist_count")) * pragma(stmt, "page_size");
+            }
+        });
+    }
+
+    private static long pragma(Statement stmt, String name) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA " + name)) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+
+    private void addColumnIfNotExists(Statement stmt, String tableName, String columnName, String columnType) {
+        try {
+            DatabaseMetaData dbm = connection.getMetaData();
+            ResultSet columns = dbm.getColumns(null, null, tableName, columnName);
+            if (!columns.next()) {
+                String alterSql = "ALTER TABLE " + tableName + " ADD COLUMN " + columnName + " " + columnType;
+                stmt.execute(alterSql);
+                logger.info("Added column " + columnName + " to table " + tableName);
+            }
+            columns.close();
+        } catch (SQLException e) {
+            logger.warn("Could not check/add column " + columnName + " to table " + tableName, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (readPool != null) {
+            readPool.close();
+        }
+        closeQuietly(connection);
+    }
+}
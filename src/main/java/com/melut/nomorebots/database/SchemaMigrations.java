@@ -0,0 +1,129 @@
+package com.melut.nomorebots.database;
+
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Versioned schema changes. Each backend lists its migrations in ascending version order; the
+ * ones above the highest version recorded in {@code schema_version} are applied in order, each
+ * in its own transaction together with its version row, so a failed step is retried on the next
+ * start instead of being half-recorded. Steps that cannot run in a transaction, and backends
+ * whose DDL commits implicitly (MySQL), still get the version row only after the step succeeded.
+ */
+final class SchemaMigrations {
+    static final String VERSION_TABLE = "schema_version";
+
+    private SchemaMigrations() {
+    }
+
+    static final class Migration {
+        private final int version;
+        private final String description;
+        private final ConnectionPool.SqlFunction<Void> step;
+        private final boolean transactional;
+
+        Migration(int version, String description, ConnectionPool.SqlFunction<Void> step) {
+            this(version, description, step, true);
+        }
+
+        private Migration(int version, String description, ConnectionPool.SqlFunction<Void> step, boolean transactional) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+            this.transactional = transactional;
+        }
+
+        /** Migration made of plain statements run in order. */
+        static Migration of(int version, String description, String... statements) {
+            return new Migration(version, description, run(statements));
+        }
+
+        /** Statements that cannot run inside a transaction, such as SQLite's VACUUM. */
+        static Migration outsideTransaction(int version, String description, String... statements) {
+            return outsideTransaction(version, description, run(statements));
+        }
+
+        static Migration outsideTransaction(int version, String description, ConnectionPool.SqlFunction<Void> step) {
+            return new Migration(version, description, step, false);
+        }
+
+        private static ConnectionPool.SqlFunction<Void> run(String... statements) {
+            return conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    for (String sql : statements) {
+                        stmt.execute(sql);
+                    }
+                }
+                return null;
+            };
+        }
+    }
+
+    /** @return the schema version after applying */
+    static int apply(Connection conn, List<Migration> migrations, Logger logger) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS " + VERSION_TABLE + " (" +
+                    "version INTEGER NOT NULL PRIMARY KEY, " +
+                    "description VARCHAR(255) NOT NULL, " +
+                    "applied_at TIMESTAMP NULL DEFAULT CURRENT_TIMESTAMP)");
+        }
+        int current = currentVersion(conn);
+
+        for (Migration migration : migrations) {
+            if (migration.version <= current) {
+                continue;
+            }
+            if (migration.transactional) {
+                boolean autoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+                try {
+                    migration.step.apply(conn);
+                    recordVersion(conn, migration);
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw failed(migration, e);
+                } finally {
+                    conn.setAutoCommit(autoCommit);
+                }
+            } else {
+                // Recorded only after the step succeeded, so a failure is retried as a whole
+                try {
+                    migration.step.apply(conn);
+                    recordVersion(conn, migration);
+                } catch (SQLException e) {
+                    throw failed(migration, e);
+                }
+            }
+            current = migration.version;
+            logger.info("Applied schema migration " + migration.version + ": " + migration.description);
+        }
+        return current;
+    }
+
+    private static void recordVersion(Connection conn, Migration migration) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO " + VERSION_TABLE + " (version, description) VALUES (?, ?)")) {
+            pstmt.setInt(1, migration.version);
+            pstmt.setString(2, migration.description);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static SQLException failed(Migration migration, SQLException cause) {
+        return new SQLException("Schema migration " + migration.version + " (" + migration.description + ") failed", cause);
+    }
+
+    private static int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM " + VERSION_TABLE)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
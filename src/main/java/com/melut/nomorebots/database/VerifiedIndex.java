@@ -0,0 +1,84 @@
+package com.melut.nomorebots.database;
+
+import java.util.Locale;
+
+/**
+ * In-memory view of every active {@code verified_until}, keyed by IP and by lowercase username.
+ * The user entry also carries the IP the user verified from, so the combined user + IP cooldown
+ * can be answered without touching the row.
+ */
+public class VerifiedIndex {
+    private final ExpiringIndex byIP = new ExpiringIndex();
+    private final ExpiringIndex byUser = new ExpiringIndex();
+    private volatile boolean loaded = false;
+
+    /** Mirrors the cooldown columns of a row that was just loaded or written. */
+    public void record(PlayerData data) {
+        record(data.getUsername(), data.getLastIP(),
+                data.getVerifiedUntil() != null ? data.getVerifiedUntil().getTime() : 0L);
+    }
+
+    public void record(String username, String ip, long verifiedUntilMillis) {
+        if (username == null) {
+            return;
+        }
+        String user = username.toLowerCase(Locale.ROOT);
+        if (verifiedUntilMillis > System.currentTimeMillis()) {
+            byUser.put(user, verifiedUntilMillis, ip);
+            if (ip != null) {
+                byIP.put(ip, verifiedUntilMillis, user);
+            }
+        } else {
+            // Cooldown cleared or expired - drop it, but leave an IP owned by someone else alone
+            byUser.remove(user);
+            if (ip != null) {
+                byIP.removeIfValue(ip, user);
+            }
+        }
+    }
+
+    public boolean isIPVerified(String ip) {
+        return byIP.contains(ip, System.currentTimeMillis());
+    }
+
+    public boolean isUserVerified(String username) {
+        return byUser.contains(username.toLowerCase(Locale.ROOT), System.currentTimeMillis());
+    }
+
+    /** True if the user has an active cooldown that was earned from this IP. */
+    public boolean isUserVerifiedFrom(String username, String ip) {
+        ExpiringIndex.Entry entry = byUser.get(username.toLowerCase(Locale.ROOT), System.currentTimeMillis());
+        return entry != null && ip.equals(entry.getValue());
+    }
+
+    /** True if the IP has an active cooldown that this user earned from it. */
+    public boolean isIPVerifiedBy(String ip, String username) {
+        ExpiringIndex.Entry entry = byIP.get(ip, System.currentTimeMillis());
+        return entry != null && username.toLowerCase(Locale.ROOT).equals(entry.getValue());
+    }
+
+    public int expire() {
+        long now = System.currentTimeMillis();
+        return byIP.expire(now) + byUser.expire(now);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    void markLoaded() {
+        loaded = true;
+    }
+
+    /** Drops snapshot entries that the store scan did not confirm. */
+    int dropUnconfirmed() {
+        return byIP.removeProvisional() + byUser.removeProvisional();
+    }
+
+    public int size() {
+        return byUser.size();
+    }
+
+    ExpiringIndex getByIP() { return byIP; }
+    ExpiringIndex getByUser() { return byUser; }
+}
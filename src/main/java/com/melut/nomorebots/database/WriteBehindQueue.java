@@ -0,0 +1,173 @@
+package com.melut.nomorebots.database;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Coalesces player updates per UUID until they are flushed as one batch. Repeated updates to
+ * the same player between flushes collapse into a single row write that carries the latest
+ * state, and every caller gets a future that completes once that write is committed.
+ *
+ * <p>Each update is copied when it is queued, since the cache and the handlers keep mutating
+ * the instance they passed in. A batch that fails goes back into the queue with exponential
+ * backoff; an update queued for the same player in the meantime wins and carries the failed
+ * callers along. Futures fail only after {@value #MAX_ATTEMPTS} attempts.</p>
+ */
+class WriteBehindQueue {
+    static final int MAX_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    interface BatchWriter {
+        void write(List<PlayerData> batch) throws Exception;
+    }
+
+    private final Map<UUID, Pending> pending = new ConcurrentHashMap<>();
+    private final BatchWriter writer;
+    private final Executor executor;
+    private final int batchSize;
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+    private final Object flushLock = new Object();
+
+    WriteBehindQueue(BatchWriter writer, Executor executor, int batchSize) {
+        this.writer = writer;
+        this.executor = executor;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    CompletableFuture<Void> enqueue(PlayerData data) {
+        PlayerData snapshot = data.copy();
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        pending.compute(data.getUuid(), (uuid, existing) -> {
+            if (existing == null) {
+                return new Pending(snapshot, future);
+            }
+            existing.data = snapshot;
+            existing.futures.add(future);
+            return existing;
+        });
+
+        // Size trigger - only one extra flush is queued at a time
+        if (pending.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                flushRequested.set(false);
+                flush();
+            });
+        }
+        return future;
+    }
+
+    /** Copy of the latest state that has been queued but not written yet, or null. */
+    PlayerData getPending(UUID uuid) {
+        Pending entry = pending.get(uuid);
+        return entry != null ? entry.data.copy() : null;
+    }
+
+    int size() {
+        return pending.size();
+    }
+
+    /**
+     * Writes everything queued so far in batches of at most {@code batchSize}, skipping updates
+     * still backing off from a failed attempt. Flushes are serialized so an older state of a
+     * player can never overwrite a newer one.
+     */
+    void flush() {
+        flush(false);
+    }
+
+    /** Final flush on shutdown: ignores backoff and fails whatever cannot be written now. */
+    void drain() {
+        flush(true);
+    }
+
+    private void flush(boolean last) {
+        synchronized (flushLock) {
+            while (!pending.isEmpty()) {
+                long now = System.nanoTime();
+                List<Pending> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+                Iterator<Map.Entry<UUID, Pending>> iterator = pending.entrySet().iterator();
+                while (iterator.hasNext() && batch.size() < batchSize) {
+                    Map.Entry<UUID, Pending> next = iterator.next();
+                    Pending entry = next.getValue();
+                    if (!last && entry.retryAt - now > 0) {
+                        continue;
+                    }
+                    if (pending.remove(next.getKey(), entry)) {
+                        batch.add(entry);
+                    }
+                }
+                if (batch.isEmpty()) {
+                    return;
+                }
+
+                List<PlayerData> rows = new ArrayList<>(batch.size());
+                for (Pending entry : batch) {
+                    rows.add(entry.data);
+                }
+                try {
+                    writer.write(rows);
+                    batch.forEach(entry -> entry.complete(null));
+                } catch (Exception e) {
+                    for (Pending entry : batch) {
+                        retry(entry, e, last);
+                    }
+                }
+            }
+        }
+    }
+
+    // Puts a failed update back, unless it is out of attempts; a newer update for the player keeps its data
+    private void retry(Pending failed, Exception cause, boolean last) {
+        int attempts = failed.attempts + 1;
+        if (last || attempts >= MAX_ATTEMPTS) {
+            failed.complete(cause);
+            return;
+        }
+        long backoff = Math.min(MAX_BACKOFF_NANOS, BASE_BACKOFF_NANOS << (attempts - 1));
+        long retryAt = System.nanoTime() + backoff;
+        pending.compute(failed.data.getUuid(), (uuid, newer) -> {
+            if (newer == null) {
+                failed.attempts = attempts;
+                failed.retryAt = retryAt;
+                return failed;
+            }
+            newer.futures.addAll(failed.futures);
+            newer.attempts = Math.max(newer.attempts, attempts);
+            newer.retryAt = retryAt;
+            return newer;
+        });
+    }
+
+    private static final class Pending {
+        // Guarded by the map's per-key lock while queued, owned by the flush once removed
+        private final List<CompletableFuture<Void>> futures = new ArrayList<>(1);
+        private volatile PlayerData data;
+        private int attempts;
+        private long retryAt;
+
+        Pending(PlayerData data, CompletableFuture<Void> future) {
+            this.data = data;
+            this.futures.add(future);
+            this.retryAt = System.nanoTime();
+        }
+
+        void complete(Exception failure) {
+            for (CompletableFuture<Void> future : futures) {
+                if (failure == null) {
+                    future.complete(null);
+                } else {
+                    future.completeExceptionally(failure);
+                }
+            }
+        }
+    }
+}
@@ -1,105 +1,225 @@
 package com.melut.nomorebots.events;
 
 import com.melut.nomorebots.NoMoreBotsPlugin;
+import com.melut.nomorebots.audit.AuditEvent;
+import com.melut.nomorebots.config.ConfigSnapshot;
+import com.melut.nomorebots.database.DatabaseManager;
 import com.melut.nomorebots.database.PlayerData;
+import com.melut.nomorebots.database.VerifiedIndex;
+import com.melut.nomorebots.monitoring.PluginMetrics;
+import com.velocitypowered.api.event.EventTask;
 import com.velocitypowered.api.event.PostOrder;
 import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.api.event.connection.DisconnectEvent;
 import com.velocitypowered.api.event.connection.LoginEvent;
+import com.velocitypowered.api.event.connection.PreLoginEvent;
 import com.velocitypowered.api.event.player.ServerPreConnectEvent;
 import com.velocitypowered.api.proxy.Player;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.format.NamedTextColor;
+import org.slf4j.Logger;
 
+import java.net.InetAddress;
 import java.sql.Timestamp;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class PlayerConnectionHandler {
     private final NoMoreBotsPlugin plugin;
+    // Verification decision computed during login, consumed by the initial server pre-connect
+    private final Map<UUID, CompletableFuture<Boolean>> pendingDecisions = new ConcurrentHashMap<>();
 
     public PlayerConnectionHandler(NoMoreBotsPlugin plugin) {
         this.plugin = plugin;
     }
 
+    /**
+     * Turns away players with an active timeout before Velocity does encryption, authentication
+     * or anything else, using only the in-memory deny index.
+     */
     @Subscribe(order = PostOrder.FIRST)
-    public void onLogin(LoginEvent event) {
+    public void onPreLogin(PreLoginEvent event) {
+        ConfigSnapshot config = plugin.getConfigManager().getSnapshot();
+        if (!config.preLoginDenyEnabled || !event.getResult().isAllowed()) {
+            return;
+        }
+        InetAddress address = event.getConnection().getRemoteAddress().getAddress();
+        if (plugin.isWhitelisted(address)) {
+            return;
+        }
+
+        long remainingMillis = plugin.getDatabaseManager().getDenyIndex().getRemainingMillis(event.getUsername(),
+                config.preLoginDenyByIP ? address.getHostAddress() : null);
+        if (remainingMillis <= 0) {
+            return;
+        }
+        long remaining = remainingMillis / 1000 / 60;
+        event.setResult(PreLoginEvent.PreLoginComponentResult.denied(
+                plugin.getLanguageManager().getMessage("verification.timeout",
+                        java.util.Collections.singletonMap("time", String.valueOf(remaining + 1)))));
+        plugin.getPluginMetrics().joinPreLoginDenied.inc();
+        plugin.getAuditLog().record(AuditEvent.LOGIN_DENIED_TIMEOUT, event.getUniqueId(), event.getUsername(),
+                address, (int) remaining + 1);
+    }
+
+    @Subscribe(order = PostOrder.FIRST)
+    public EventTask onLogin(LoginEvent event) {
+        long start = System.nanoTime();
+        PluginMetrics metrics = plugin.getPluginMetrics();
         Player player = event.getPlayer();
         UUID uuid = player.getUniqueId();
         String username = player.getUsername();
+        String playerIP = player.getRemoteAddress().getAddress().getHostAddress();
+        // One snapshot for the whole login so a concurrent reload cannot mix settings
+        ConfigSnapshot config = plugin.getConfigManager().getSnapshot();
+        plugin.getAttackMode().recordJoin();
+        boolean bypassPermission = player.hasPermission(config.bypassPermission)
+                || plugin.isWhitelisted(player.getRemoteAddress().getAddress());
 
-        try {
-            // Ensure DB entry exists
-            plugin.getDatabaseManager().createPlayerData(uuid, username).get();
-            Optional<PlayerData> optData = plugin.getDatabaseManager().getPlayerData(uuid).get();
-            
-            if (optData.isPresent()) {
-                PlayerData data = optData.get();
-                // Check if timed out
-                if (data.isTimedOut()) {
-                    long remaining = (data.getTimeoutUntil().getTime() - System.currentTimeMillis()) / 1000 / 60;
-                    event.setResult(LoginEvent.ComponentResult.denied(
-                            plugin.getLanguageManager().getMessage("verification.timeout", 
-                                    java.util.Collections.singletonMap("time", String.valueOf(remaining + 1)))));
-                }
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            plugin.getLogger().error("Error loading player data for " + username, e);
+        // Rate limit before any DB work or limbo spawn
+        if (!bypassPermission && config.rateLimitEnabled
+                && !plugin.getJoinRateLimiter().tryAcquire(player.getRemoteAddress().getAddress())) {
+            event.setResult(LoginEvent.ComponentResult.denied(plugin.getLanguageManager().getMessage("verification.rate-limited")));
+            metrics.joinRateLimited.inc();
+            plugin.getAuditLog().record(AuditEvent.RATE_LIMITED, uuid, username, player.getRemoteAddress().getAddress(), 0);
+            return null;
         }
+
+        DatabaseManager database = plugin.getDatabaseManager();
+
+        CompletableFuture<Boolean> decision = new CompletableFuture<>();
+        pendingDecisions.put(uuid, decision);
+
+        // Ensure DB entry exists, then load it - the event stays paused without holding an event thread.
+        // Under attack the row is only created once the player succeeds or times out
+        CompletableFuture<Optional<PlayerData>> loaded = plugin.getAttackMode().isActive()
+                ? database.getPlayerData(uuid)
+                : database.createPlayerData(uuid, username).thenCompose(ignored -> database.getPlayerData(uuid));
+        CompletableFuture<Void> pipeline = loaded
+                .thenAccept(optData -> {
+                    if (optData.isPresent() && optData.get().isTimedOut()) {
+                        long minutes = denyTimedOut(event, optData.get());
+                        pendingDecisions.remove(uuid, decision);
+                        metrics.joinTimedOut.inc();
+                        plugin.getAuditLog().record(AuditEvent.LOGIN_DENIED_TIMEOUT, uuid, username,
+                                player.getRemoteAddress().getAddress(), (int) minutes);
+                        decision.complete(false);
+                        return;
+                    }
+
+                    if (bypassPermission) {
+                        metrics.joinBypass.inc();
+                        decision.complete(false);
+                        return;
+                    }
+
+                    // Check if verification is needed based on cooldown system
+                    boolean needsVerification = checkIfVerificationNeeded(config, player, optData, playerIP, username);
+                    if (optData.isPresent() && optData.get().isTimedOut()) {
+                        // The session limit was reached just now and turned into a timeout
+                        denyTimedOut(event, optData.get());
+                        pendingDecisions.remove(uuid, decision);
+                        decision.complete(false);
+                        return;
+                    }
+                    if (needsVerification) {
+                        metrics.joinVerify.inc();
+                    }
+                    decision.complete(needsVerification);
+                })
+                .exceptionally(throwable -> {
+                    plugin.getLogger().error("Error loading player data for " + username, throwable);
+                    metrics.joinError.inc();
+                    // On error, allow connection to prevent blocking legitimate players
+                    decision.complete(false);
+                    return null;
+                })
+                .whenComplete((ignored, throwable) -> metrics.loginDecisionLatency.observeSince(start));
+
+        return EventTask.resumeWhenComplete(pipeline);
+    }
+
+    /**
+     * Denies the login with the timeout message.
+     *
+     * @return minutes left on the timeout, rounded up
+     */
+    private long denyTimedOut(LoginEvent event, PlayerData data) {
+        long minutes = (data.getTimeoutUntil().getTime() - System.currentTimeMillis()) / 1000 / 60 + 1;
+        event.setResult(LoginEvent.ComponentResult.denied(
+                plugin.getLanguageManager().getMessage("verification.timeout",
+                        java.util.Collections.singletonMap("time", String.valueOf(minutes)))));
+        return minutes;
     }
 
     @Subscribe(order = PostOrder.EARLY)
-    public void onServerPreConnect(ServerPreConnectEvent event) {
-        if (event.getPreviousServer() == null) { // Initial Join
-            Player player = event.getPlayer();
-            
-            // Check bypass permission
-            if (player.hasPermission(plugin.getConfigManager().getBypassPermission())) {
-                return;
-            }
+    public EventTask onServerPreConnect(ServerPreConnectEvent event) {
+        if (event.getPreviousServer() != null) {
+            return null;
+        }
 
-            String playerIP = player.getRemoteAddress().getAddress().getHostAddress();
-            String username = player.getUsername();
-            
-            plugin.getLogger().info("Player " + username + " (" + playerIP + ") attempting initial server connect");
-            
-            // Check if verification is needed based on cooldown system
-            try {
-                boolean needsVerification = checkIfVerificationNeeded(player, playerIP, username);
-                
-                if (needsVerification) {
-                    plugin.getLogger().info("Sending " + username + " to Limbo for verification");
-                    
-                    // Deny the normal server connection
-                    event.setResult(ServerPreConnectEvent.ServerResult.denied());
-                    
-                    // Send to Limbo after a short delay
-                    plugin.getServer().getScheduler()
-                        .buildTask(plugin, () -> {
-                            plugin.getLogger().info("Executing Limbo spawn for " + username);
-                            plugin.getLimboManager().sendToLimbo(player);
-                        })
-                        .delay(java.time.Duration.ofMillis(100))
-                        .schedule();
-                } else {
-                    plugin.getLogger().info("Player " + username + " is in cooldown period - allowing normal connection");
-                }
-            } catch (Exception e) {
-                plugin.getLogger().error("Error checking verification status for " + username, e);
-                // On error, allow connection to prevent blocking legitimate players
+        // Initial Join
+        Player player = event.getPlayer();
+
+        // Check bypass permission and IP whitelist
+        if (player.hasPermission(plugin.getConfigManager().getSnapshot().bypassPermission)
+                || plugin.isWhitelisted(player.getRemoteAddress().getAddress())) {
+            return null;
+        }
+
+        CompletableFuture<Boolean> decision = pendingDecisions.remove(player.getUniqueId());
+        if (decision == null) {
+            plugin.getLogger().warn("No verification decision for " + player.getUsername() + " - allowing normal connection");
+            return null;
+        }
+
+        if (decision.isDone()) {
+            applyDecision(event, player, decision.getNow(false));
+            return null;
+        }
+
+        return EventTask.withContinuation(continuation -> decision.whenComplete((needsVerification, throwable) -> {
+            applyDecision(event, player, throwable == null && needsVerification);
+            continuation.resume();
+        }));
+    }
+
+    private void applyDecision(ServerPreConnectEvent event, Player player, boolean needsVerification) {
+        String username = player.getUsername();
+        Logger logger = plugin.getLogger();
+        if (logger.isDebugEnabled()) {
+            logger.debug("Player " + username + " (" + player.getRemoteAddress().getAddress().getHostAddress() + ") attempting initial server connect");
+        }
+
+        if (needsVerification) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Sending " + username + " to Limbo for verification");
             }
+            plugin.getAuditLog().record(AuditEvent.VERIFICATION_REQUIRED, player.getUniqueId(), username,
+                    player.getRemoteAddress().getAddress(), 0);
+
+            // Deny the normal server connection
+            event.setResult(ServerPreConnectEvent.ServerResult.denied());
+
+            // Send to Limbo after a short delay
+            plugin.getServer().getScheduler()
+                .buildTask(plugin, () -> {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Executing Limbo spawn for " + username);
+                    }
+                    plugin.getLimboManager().sendToLimbo(player);
+                })
+                .delay(java.time.Duration.ofMillis(100))
+                .schedule();
+        } else if (logger.isDebugEnabled()) {
+            logger.debug("Player " + username + " is in cooldown period - allowing normal connection");
         }
     }
     
-    private boolean checkIfVerificationNeeded(Player player, String playerIP, String username) throws Exception {
-        // Check cached data first
-        Optional<PlayerData> optData = plugin.getDatabaseManager().getCachedPlayerData(player.getUniqueId());
-        if (!optData.isPresent()) {
-            // No cached data, load from DB
-            optData = plugin.getDatabaseManager().getPlayerData(player.getUniqueId()).get();
-        }
-        
+    // Package-private for the benchmark module
+    boolean checkIfVerificationNeeded(ConfigSnapshot config, Player player, Optional<PlayerData> optData, String playerIP, String username) {
         if (optData.isPresent()) {
             PlayerData data = optData.get();
             
@@ -109,53 +229,39 @@ public class PlayerConnectionHandler {
             }
             
             // Check if player is in cooldown period
-            if (data.isInCooldown()) {
-                // Additional checks based on config
-                boolean trackByUser = plugin.getConfigManager().isTrackByUser();
-                boolean trackByIP = plugin.getConfigManager().isTrackByIP();
-                
-                boolean ipMatches = playerIP.equals(data.getLastIP());
-                boolean userMatches = username.equals(data.getUsername());
-                
-                if (trackByUser && trackByIP) {
-                    // Both IP and user must match
-                    if (ipMatches && userMatches) {
-                        return false; // No verification needed
-                    }
-                } else if (trackByUser && userMatches) {
-                    // Only user tracking enabled and user matches
-                    return false;
-                } else if (trackByIP && ipMatches) {
-                    // Only IP tracking enabled and IP matches
-                    return false;
-                }
-                
-                // If we reach here, either:
-                // - Same user from different IP (if tracking by user+IP)
-                // - Different user from same IP (if tracking by user+IP)
-                // - Or tracking settings don't allow bypass
-                plugin.getLogger().info("Cooldown bypass denied for " + username + " (" + playerIP + ") - " +
-                    "User match: " + userMatches + ", IP match: " + ipMatches +
-                    ", Track user: " + trackByUser + ", Track IP: " + trackByIP);
+            if (isCooldownSatisfied(config, data, playerIP, username)) {
+                plugin.getPluginMetrics().joinCooldown.inc();
+                plugin.getAuditLog().record(AuditEvent.COOLDOWN_BYPASS, player.getUniqueId(), username,
+                        player.getRemoteAddress().getAddress(), 0);
+                return false; // No verification needed
             }
             
             // Check session attempt limit (new retry system)
-            int maxSessions = plugin.getConfigManager().getMaxSessions();
+            int maxSessions = config.maxSessions;
             int sessionAttempts = data.getSessionAttempts();
             if (sessionAttempts >= maxSessions && !data.isInCooldown()) {
                 // Player has used all their session attempts - apply timeout
-                plugin.getLogger().info("Player " + username + " has exceeded max session attempts (" + sessionAttempts + "/" + maxSessions + "), applying timeout");
-                long timeoutMillis = System.currentTimeMillis() + (plugin.getConfigManager().getTimeoutDuration() * 1000L);
+                if (plugin.getLogger().isDebugEnabled()) {
+                    plugin.getLogger().debug("Player " + username + " has exceeded max session attempts (" + sessionAttempts + "/" + maxSessions + "), applying timeout");
+                }
+                plugin.getPluginMetrics().joinSessionLimit.inc();
+                plugin.getAuditLog().record(AuditEvent.SESSION_LIMIT, player.getUniqueId(), username,
+                        player.getRemoteAddress().getAddress(), sessionAttempts);
+                long timeoutMillis = System.currentTimeMillis() + (config.timeoutDuration * 1000L);
+                plugin.getDatabaseManager().getDenyIndex().deny(username, playerIP, timeoutMillis);
                 data.setTimeoutUntil(new Timestamp(timeoutMillis));
                 plugin.getDatabaseManager().updatePlayerData(data);
-                return false; // Will be handled by timeout check in login event
+                return false; // The login pipeline denies the now timed-out player
             }
             
-            // Increment session attempts for verification needed cases
-            if (!data.isInCooldown()) {
+            // Increment session attempts for verification needed cases, skipped under attack
+            // so a bot join costs no write until it times out
+            if (!data.isInCooldown() && !plugin.getAttackMode().isActive()) {
                 data.incrementSessionAttempts();
                 plugin.getDatabaseManager().updatePlayerData(data);
-                plugin.getLogger().info("Player " + username + " session attempt " + data.getSessionAttempts() + "/" + maxSessions);
+                if (plugin.getLogger().isDebugEnabled()) {
+                    plugin.getLogger().debug("Player " + username + " session attempt " + data.getSessionAttempts() + "/" + maxSessions);
+                }
             }
         }
         
@@ -163,10 +269,70 @@ public class PlayerConnectionHandler {
         return true;
     }
 
+    /**
+     * Cooldown check: the player's own cooldown, earned under this name and/or from this IP as
+     * the tracking settings require. The in-memory verified index answers it once loaded; what
+     * it cannot confirm is checked against the row's {@code last_ip} and username, so the result
+     * never depends on whether the startup scan has finished.
+     */
+    private boolean isCooldownSatisfied(ConfigSnapshot config, PlayerData data, String playerIP, String username) {
+        // Additional checks based on config
+        boolean trackByUser = config.trackByUser;
+        boolean trackByIP = config.trackByIP;
+        VerifiedIndex index = plugin.getDatabaseManager().getVerifiedIndex();
+
+        if (!data.isInCooldown()) {
+            return false;
+        }
+        if (index.isLoaded()) {
+            if (trackByUser && trackByIP) {
+                // Both IP and user must match - the user's cooldown must have been earned from this IP
+                if (index.isUserVerifiedFrom(username, playerIP)) {
+                    return true;
+                }
+            } else if (trackByUser && index.isUserVerified(username)) {
+                return true;
+            } else if (trackByIP && index.isIPVerifiedBy(playerIP, username)) {
+                // Another account's cooldown on the same IP does not count
+                return true;
+            }
+        }
+
+        boolean ipMatches = playerIP.equals(data.getLastIP());
+        boolean userMatches = username.equals(data.getUsername());
+
+        if (trackByUser && trackByIP) {
+            // Both IP and user must match
+            if (ipMatches && userMatches) {
+                return true;
+            }
+        } else if (trackByUser && userMatches) {
+            // Only user tracking enabled and user matches
+            return true;
+        } else if (trackByIP && ipMatches) {
+            // Only IP tracking enabled and IP matches
+            return true;
+        }
+
+        // If we reach here, either:
+        // - Same user from different IP (if tracking by user+IP)
+        // - Different user from same IP (if tracking by user+IP)
+        // - Or tracking settings don't allow bypass
+        if (plugin.getLogger().isDebugEnabled()) {
+            plugin.getLogger().debug("Cooldown bypass denied for " + username + " (" + playerIP + ") - " +
+                "User match: " + userMatches + ", IP match: " + ipMatches +
+                ", Track user: " + trackByUser + ", Track IP: " + trackByIP);
+        }
+        return false;
+    }
+
     @Subscribe
     public void onDisconnect(DisconnectEvent event) {
         UUID uuid = event.getPlayer().getUniqueId();
+        pendingDecisions.remove(uuid);
         plugin.getVerificationManager().removeSession(uuid);
-        plugin.getDatabaseManager().removeCachedPlayerData(uuid);
+        plugin.getLimboManager().onPlayerDisconnect(uuid);
+        // On a local store player data stays cached until it expires so a quick reconnect skips the database
+        plugin.getDatabaseManager().onPlayerDisconnect(uuid);
     }
 }
\ No newline at end of file
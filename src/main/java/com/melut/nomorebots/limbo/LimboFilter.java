@@ -1,17 +1,28 @@
 package com.melut.nomorebots.limbo;
 
 import com.melut.nomorebots.NoMoreBotsPlugin;
+import com.melut.nomorebots.audit.AuditEvent;
+import com.melut.nomorebots.config.ConfigSnapshot;
+import com.melut.nomorebots.monitoring.PluginMetrics;
+import com.melut.nomorebots.verification.VerificationSession;
 import com.velocitypowered.api.proxy.Player;
 import net.elytrium.limboapi.api.Limbo;
 import net.elytrium.limboapi.api.LimboSessionHandler;
 import net.elytrium.limboapi.api.player.LimboPlayer;
 import net.elytrium.limboapi.api.player.GameMode;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 public class LimboFilter implements LimboSessionHandler {
     private final NoMoreBotsPlugin plugin;
     private final Player player;
+    private final int shard;
+    private final AtomicBoolean shardReleased = new AtomicBoolean(false);
     private boolean spawned = false;
-    private LimboPlayer limboPlayer;
+    private volatile LimboPlayer limboPlayer;
+    // Set when a displacement was seen but the correction was debounced, cleared by a teleport
+    private volatile boolean correctionPending;
     private static final double SPAWN_X = 0.5;
     private static final double SPAWN_Y = 64.0;
     private static final double SPAWN_Z = 0.5;
@@ -20,10 +31,38 @@ public class LimboFilter implements LimboSessionHandler {
     private volatile float lastYaw = 0.0f;
     private volatile float lastPitch = 0.0f;
 
-    public LimboFilter(NoMoreBotsPlugin plugin, Player player) {
+    // Rotations reach the session at most once per tick, corrections at most every 250ms
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long TELEPORT_DEBOUNCE_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+    // Inbound packet state, only touched from this player's packet callbacks
+    private final PluginMetrics metrics;
+    private final long packetIntervalNanos;
+    private final long packetBurstNanos;
+    private final int packetBurst;
+    private long budgetArrivalNanos;
+    private int packetsOverBudget;
+    private boolean floodKicked;
+    private long lastRotationFlushNanos;
+    private long lastTeleportNanos;
+    private VerificationSession session;
+
+    public LimboFilter(NoMoreBotsPlugin plugin, Player player, int shard) {
         this.plugin = plugin;
         this.player = player;
-        plugin.getLogger().info("LimboFilter created for player: " + player.getUsername());
+        this.shard = shard;
+        this.metrics = plugin.getPluginMetrics();
+        ConfigSnapshot config = plugin.getConfigManager().getSnapshot();
+        this.packetIntervalNanos = TimeUnit.SECONDS.toNanos(1) / config.limboPacketsPerSecond;
+        this.packetBurst = config.limboPacketBurst;
+        this.packetBurstNanos = packetIntervalNanos * config.limboPacketBurst;
+        long now = System.nanoTime();
+        this.budgetArrivalNanos = now;
+        this.lastRotationFlushNanos = now - TICK_NANOS;
+        this.lastTeleportNanos = now - TELEPORT_DEBOUNCE_NANOS;
+        if (plugin.getLogger().isDebugEnabled()) {
+            plugin.getLogger().debug("LimboFilter created for player: " + player.getUsername());
+        }
         
         // Try to start verification immediately as a fallback
         plugin.getServer().getScheduler()
@@ -39,69 +78,95 @@ public class LimboFilter implements LimboSessionHandler {
 
     // Try ALL possible callback method names
     public void onSpawn(Limbo server, LimboPlayer limboPlayer) {
-        plugin.getLogger().info("LimboFilter.onSpawn(Limbo, LimboPlayer) called for player: " + player.getUsername());
+        if (plugin.getLogger().isDebugEnabled()) {
+            plugin.getLogger().debug("LimboFilter.onSpawn(Limbo, LimboPlayer) called for player: " + player.getUsername());
+        }
         handleSpawn(limboPlayer);
     }
     
     public void onSpawn(LimboPlayer limboPlayer) {
-        plugin.getLogger().info("LimboFilter.onSpawn(LimboPlayer) called for player: " + player.getUsername());
+        if (plugin.getLogger().isDebugEnabled()) {
+            plugin.getLogger().debug("LimboFilter.onSpawn(LimboPlayer) called for player: " + player.getUsername());
+        }
         handleSpawn(limboPlayer);
     }
     
     public void onSpawn() {
-        plugin.getLogger().info("LimboFilter.onSpawn() called for player: " + player.getUsername());
+        if (plugin.getLogger().isDebugEnabled()) {
+            plugin.getLogger().debug("LimboFilter.onSpawn() called for player: " + player.getUsername());
+        }
         handleSpawn(null);
     }
     
     // Try other common callback names
     public void onConnect(Limbo server, LimboPlayer limboPlayer) {
-        plugin.getLogger().info("LimboFilter.onConnect(Limbo, LimboPlayer) called for player: " + player.getUsername());
+        if (plugin.getLogger().isDebugEnabled()) {
+            plugin.getLogger().debug("LimboFilter.onConnect(Limbo, LimboPlayer) called for player: " + player.getUsername());
+        }
         handleSpawn(limboPlayer);
     }
     
     public void onConnect(LimboPlayer limboPlayer) {
-        plugin.getLogger().info("LimboFilter.onConnect(LimboPlayer) called for player: " + player.getUsername());
+        if (plugin.getLogger().isDebugEnabled()) {
+            plugin.getLogger().debug("LimboFilter.onConnect(LimboPlayer) called for player: " + player.getUsername());
+        }
         handleSpawn(limboPlayer);
     }
     
     public void onConnect() {
-        plugin.getLogger().info("LimboFilter.onConnect() called for player: " + player.getUsername());
+        if (plugin.getLogger().isDebugEnabled()) {
+            plugin.getLogger().debug("LimboFilter.onConnect() called for player: " + player.getUsername());
+        }
         handleSpawn(null);
     }
     
     public void onJoin(Limbo server, LimboPlayer limboPlayer) {
-        plugin.getLogger().info("LimboFilter.onJoin(Limbo, LimboPlayer) called for player: " + player.getUsername());
+        if (plugin.getLogger().isDebugEnabled()) {
+            plugin.getLogger().debug("LimboFilter.onJoin(Limbo, LimboPlayer) called for player: " + player.getUsername());
+        }
         handleSpawn(limboPlayer);
     }
     
     public void onJoin(LimboPlayer limboPlayer) {
-        plugin.getLogger().info("LimboFilter.onJoin(LimboPlayer) called for player: " + player.getUsername());
+        if (plugin.getLogger().isDebugEnabled()) {
+            plugin.getLogger().debug("LimboFilter.onJoin(LimboPlayer) called for player: " + player.getUsername());
+        }
         handleSpawn(limboPlayer);
     }
     
     public void onJoin() {
-        plugin.getLogger().info("LimboFilter.onJoin() called for player: " + player.getUsername());
+        if (plugin.getLogger().isDebugEnabled()) {
+            plugin.getLogger().debug("LimboFilter.onJoin() called for player: " + player.getUsername());
+        }
         handleSpawn(null);
     }
     
     public void onPlayerConnect(Limbo server, LimboPlayer limboPlayer) {
-        plugin.getLogger().info("LimboFilter.onPlayerConnect(Limbo, LimboPlayer) called for player: " + player.getUsername());
+        if (plugin.getLogger().isDebugEnabled()) {
+            plugin.getLogger().debug("LimboFilter.onPlayerConnect(Limbo, LimboPlayer) called for player: " + player.getUsername());
+        }
         handleSpawn(limboPlayer);
     }
     
     public void onPlayerJoin(LimboPlayer limboPlayer) {
-        plugin.getLogger().info("LimboFilter.onPlayerJoin(LimboPlayer) called for player: " + player.getUsername());
+        if (plugin.getLogger().isDebugEnabled()) {
+            plugin.getLogger().debug("LimboFilter.onPlayerJoin(LimboPlayer) called for player: " + player.getUsername());
+        }
         handleSpawn(limboPlayer);
     }
     
     public void onSessionStart(Limbo server, LimboPlayer limboPlayer) {
-        plugin.getLogger().info("LimboFilter.onSessionStart(Limbo, LimboPlayer) called for player: " + player.getUsername());
+        if (plugin.getLogger().isDebugEnabled()) {
+            plugin.getLogger().debug("LimboFilter.onSessionStart(Limbo, LimboPlayer) called for player: " + player.getUsername());
+        }
         handleSpawn(limboPlayer);
     }
     
     // Try generic handler methods
     public void handle(Limbo server, LimboPlayer limboPlayer) {
-        plugin.getLogger().info("LimboFilter.handle(Limbo, LimboPlayer) called for player: " + player.getUsername());
+        if (plugin.getLogger().isDebugEnabled()) {
+            plugin.getLogger().debug("LimboFilter.handle(Limbo, LimboPlayer) called for player: " + player.getUsername());
+        }
         handleSpawn(limboPlayer);
     }
     
@@ -110,7 +175,9 @@ public class LimboFilter implements LimboSessionHandler {
         spawned = true;
         
         // Player joined Limbo. Open the GUI.
-        plugin.getLogger().info("Player " + player.getUsername() + " spawned in Limbo!");
+        if (plugin.getLogger().isDebugEnabled()) {
+            plugin.getLogger().debug("Player " + player.getUsername() + " spawned in Limbo!");
+        }
         
         // Set gamemode to adventure to prevent block breaking/placing
         if (limboPlayer != null) {
@@ -119,13 +186,14 @@ public class LimboFilter implements LimboSessionHandler {
                 limboPlayer.setGameMode(GameMode.ADVENTURE);
                 // Oyuncuyu spawn pozisyonuna ışınla
                 limboPlayer.teleport(SPAWN_X, SPAWN_Y, SPAWN_Z, 0.0f, 0.0f);
+                metrics.limboTeleportsSpawn.inc();
                 
                 // İlk rotasyon değerlerini kaydet
                 lastYaw = 0.0f;
                 lastPitch = 0.0f;
                 
-                // Start position enforcer task
-                startPositionEnforcer();
+                // Corrections are driven by onMove, the manager's sweep is only a safety net
+                plugin.getLimboManager().register(this);
             } catch (Exception e) {
                 plugin.getLogger().warn("Could not set gamemode/position for " + player.getUsername() + ": " + e.getMessage());
             }
@@ -141,7 +209,9 @@ public class LimboFilter implements LimboSessionHandler {
         // Start verification after a short delay to ensure connection is stable
         plugin.getServer().getScheduler()
             .buildTask(plugin, () -> {
-                plugin.getLogger().info("Starting verification for " + player.getUsername());
+                if (plugin.getLogger().isDebugEnabled()) {
+                    plugin.getLogger().debug("Starting verification for " + player.getUsername());
+                }
                 plugin.getVerificationManager().startVerification(player);
             })
             .delay(java.time.Duration.ofSeconds(1))
@@ -149,74 +219,190 @@ public class LimboFilter implements LimboSessionHandler {
     }
     
     public void onDisconnect() {
-        plugin.getLogger().info("Player " + player.getUsername() + " disconnected from Limbo");
+        if (plugin.getLogger().isDebugEnabled()) {
+            plugin.getLogger().debug("Player " + player.getUsername() + " disconnected from Limbo");
+        }
+        plugin.getLimboManager().unregister(this);
+        releaseShard();
         // Clean up any verification sessions
         plugin.getVerificationManager().removeSession(player.getUniqueId());
     }
     
+    /** Frees the shard slot exactly once, whichever of the limbo or the proxy reports the disconnect first. */
+    void releaseShard() {
+        if (shardReleased.compareAndSet(false, true)) {
+            plugin.getLimboManager().releaseShard(player.getUniqueId(), this, shard);
+        }
+    }
+
     // Try to implement more possible LimboSessionHandler methods
     public void onChat(String message) {
-        plugin.getLogger().info("Player " + player.getUsername() + " sent chat in Limbo: " + message);
+        if (!admitPacket()) {
+            return;
+        }
+        metrics.limboPacketsProcessed.inc();
+        if (plugin.getLogger().isDebugEnabled()) {
+            plugin.getLogger().debug("Player " + player.getUsername() + " sent chat in Limbo: " + message);
+        }
         
         // Pass message to verification session
-        var session = plugin.getVerificationManager().getSession(player.getUniqueId());
-        if (session != null) {
-            session.handleChatMessage(message);
+        VerificationSession current = currentSession();
+        if (current != null) {
+            current.handleChatMessage(message);
         }
     }
     
     public void onMove(double x, double y, double z, float yaw, float pitch) {
-        // Kafa hareketini (yaw/pitch) kaydet - bu serbest kalacak
-        lastYaw = yaw;
-        lastPitch = pitch;
-        
-        // Pozisyon değişikliklerini kontrol et - ANLIK TELEPORT için düşük tolerance
+        if (!admitPacket()) {
+            return;
+        }
+        long now = System.nanoTime();
+        checkPosition(x, y, z, yaw, pitch, now);
+        observeRotation(yaw, pitch, now);
+        offerRotation(yaw, pitch, now);
+    }
+
+    public void onMove(double x, double y, double z) {
+        if (!admitPacket()) {
+            return;
+        }
+        // Position-only packets still advance the hold timer with the last rotation
+        long now = System.nanoTime();
+        checkPosition(x, y, z, lastYaw, lastPitch, now);
+        offerRotation(lastYaw, lastPitch, now);
+    }
+
+    public void onRotate(float yaw, float pitch) {
+        if (!admitPacket()) {
+            return;
+        }
+        long now = System.nanoTime();
+        observeRotation(yaw, pitch, now);
+        offerRotation(yaw, pitch, now);
+    }
+
+    /**
+     * Per-player packet budget as a virtual-scheduling token bucket: each packet moves the
+     * expected arrival time forward by one interval, and a packet that would push it more than
+     * the burst ahead of now is dropped. Every admitted packet works one drop off again, so a
+     * lag spike that bunches up packets is forgotten once traffic is back to normal, and only a
+     * flood that keeps outrunning the budget reaches a burst's worth of net drops and is kicked.
+     */
+    private boolean admitPacket() {
+        if (floodKicked) {
+            return false;
+        }
+        long now = System.nanoTime();
+        long next = Math.max(budgetArrivalNanos, now) + packetIntervalNanos;
+        if (next - now <= packetBurstNanos) {
+            budgetArrivalNanos = next;
+            if (packetsOverBudget > 0) {
+                packetsOverBudget--;
+            }
+            return true;
+        }
+        metrics.limboPacketsDropped.inc();
+        if (++packetsOverBudget >= packetBurst) {
+            floodKicked = true;
+            metrics.limboFloodKicks.inc();
+            plugin.getAuditLog().record(AuditEvent.PACKET_FLOOD, player.getUniqueId(), player.getUsername(),
+                    player.getRemoteAddress().getAddress(), packetsOverBudget);
+            if (plugin.getLogger().isDebugEnabled()) {
+                plugin.getLogger().debug("Kicking " + player.getUsername() + " for exceeding the limbo packet budget");
+            }
+            player.disconnect(plugin.getLanguageManager().getMessage("verification.packet-flood"));
+        }
+        return false;
+    }
+
+    private void checkPosition(double x, double y, double z, float yaw, float pitch, long now) {
+        // Pozisyon değişikliklerini kontrol et - düşük tolerance
         double deltaX = Math.abs(x - SPAWN_X);
         double deltaZ = Math.abs(z - SPAWN_Z);
         double deltaY = Math.abs(y - SPAWN_Y);
-        
-        // Çok düşük tolerance - herhangi bir hareket girişiminde ANLIK teleport
-        // Göz yormaması için hızlı ve keskin müdahale
-        if (deltaX > 0.02 || deltaZ > 0.02 || deltaY > 0.05) {
-            if (limboPlayer != null) {
-                try {
-                    // ANLIK teleport - kafa hareketini KORU
-                    limboPlayer.teleport(SPAWN_X, SPAWN_Y, SPAWN_Z, yaw, pitch);
-                } catch (Exception e) {
-                    plugin.getLogger().warn("Could not teleport " + player.getUsername() + " back to spawn", e);
-                }
-            }
+        if (deltaX <= 0.02 && deltaZ <= 0.02 && deltaY <= 0.05) {
+            correctionPending = false;
+            return;
         }
-        
-        // Verification session'a her zaman gerçek rotasyonu gönder
-        var session = plugin.getVerificationManager().getSession(player.getUniqueId());
-        if (session != null) {
-            // Spawn pozisyonunda ama gerçek kafa hareketini gönder
-            session.handleMovement(SPAWN_X, SPAWN_Y, SPAWN_Z, yaw, pitch);
+        // The client keeps reporting its old position until the teleport arrives,
+        // so one correction per debounce window is enough
+        if (now - lastTeleportNanos < TELEPORT_DEBOUNCE_NANOS) {
+            correctionPending = true;
+            return;
+        }
+        lastTeleportNanos = now;
+        if (teleportToSpawn(yaw, pitch)) {
+            metrics.limboTeleportsCorrection.inc();
         }
     }
-    
-    private void startPositionEnforcer() {
-        // Position enforcer - ANLIK RESPONSE için sık çalışır
-        // Backup sistem olarak 200ms'de bir pozisyonu garantiler
-        plugin.getServer().getScheduler()
-            .buildTask(plugin, () -> {
-                if (limboPlayer != null && spawned) {
-                    try {
-                        // ANLIK pozisyon düzeltme - kafa hareketini koru
-                        limboPlayer.teleport(SPAWN_X, SPAWN_Y, SPAWN_Z, lastYaw, lastPitch);
-                    } catch (Exception e) {
-                        // Silently fail, player might have disconnected
-                    }
-                }
-            })
-            .repeat(java.time.Duration.ofMillis(200)) // 200ms - ANLIK response için sık kontrol
-            .schedule();
+
+    /**
+     * Called by the limbo manager's periodic sweep. Sends a correction only if the last
+     * displacement was debounced and no in-bounds position has been reported since.
+     */
+    void sweep() {
+        if (correctionPending && teleportToSpawn(lastYaw, lastPitch)) {
+            metrics.limboTeleportsSweep.inc();
+        }
+    }
+
+    private boolean teleportToSpawn(float yaw, float pitch) {
+        LimboPlayer current = limboPlayer;
+        if (current == null) {
+            return false;
+        }
+        correctionPending = false;
+        try {
+            // Kafa hareketini KORU
+            current.teleport(SPAWN_X, SPAWN_Y, SPAWN_Z, yaw, pitch);
+            return true;
+        } catch (Exception e) {
+            plugin.getLogger().warn("Could not teleport " + player.getUsername() + " back to spawn", e);
+            return false;
+        }
+    }
+
+    // Behavior analysis sees every real rotation packet, position-only ones carry no new rotation.
+    // Uses the cached session only, so packets before the first flush do not hit the session map
+    private void observeRotation(float yaw, float pitch, long now) {
+        VerificationSession current = session;
+        if (current != null && !current.isClosed()) {
+            current.observeRotation(yaw, pitch, now);
+        }
+    }
+
+    // Latest rotation wins within a tick; the next packet always carries a newer one, so a
+    // coalesced sample never needs a separate flush
+    private void offerRotation(float yaw, float pitch, long now) {
+        lastYaw = yaw;
+        lastPitch = pitch;
+        if (now - lastRotationFlushNanos < TICK_NANOS) {
+            metrics.limboPacketsCoalesced.inc();
+            return;
+        }
+        lastRotationFlushNanos = now;
+        metrics.limboPacketsProcessed.inc();
+
+        // Verification session'a gerçek rotasyonu gönder, pozisyon her zaman spawn
+        VerificationSession current = currentSession();
+        if (current != null) {
+            current.handleMovement(SPAWN_X, SPAWN_Y, SPAWN_Z, yaw, pitch);
+        }
+    }
+
+    // Cached until the manager removes or replaces the session
+    private VerificationSession currentSession() {
+        VerificationSession current = session;
+        if (current == null || current.isClosed()) {
+            current = plugin.getVerificationManager().getSession(player.getUniqueId());
+            session = current;
+        }
+        return current;
     }
     
     // Override toString for debugging
     @Override
     public String toString() {
-        return "LimboFilter{player=" + player.getUsername() + ", spawned=" + spawned + "}";
+        return "LimboFilter{player=" + player.getUsername() + ", shard=" + shard + ", spawned=" + spawned + "}";
     }
 }
\ No newline at end of file
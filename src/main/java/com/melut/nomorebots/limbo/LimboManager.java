@@ -1,18 +1,39 @@
 package com.melut.nomorebots.limbo;
 
 import com.melut.nomorebots.NoMoreBotsPlugin;
+import com.melut.nomorebots.audit.AuditEvent;
 import com.velocitypowered.api.proxy.Player;
 import net.elytrium.limboapi.api.Limbo;
 import net.elytrium.limboapi.api.LimboFactory;
-import net.elytrium.limboapi.api.LimboSessionHandler;
 import net.elytrium.limboapi.api.chunk.VirtualWorld;
 import net.elytrium.limboapi.api.chunk.Dimension;
+import net.kyori.adventure.text.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 public class LimboManager {
     private final NoMoreBotsPlugin plugin;
     private final LimboFactory limboFactory;
     private final VirtualWorld limboWorld;
 
+    // Fixed pool of limbo instances shared by all players, with per-shard occupancy
+    private final Limbo[] shards;
+    private final AtomicIntegerArray occupancy;
+    private final int shardCapacity;
+    private final AtomicInteger nextShard = new AtomicInteger();
+
+    // Spawned players, visited by the low-frequency position sweep
+    private static final long SWEEP_INTERVAL_SECONDS = 5;
+    private final Set<LimboFilter> spawnedFilters = ConcurrentHashMap.newKeySet();
+    // Every player holding a shard slot, from sendToLimbo until the slot is released
+    private final Map<UUID, LimboFilter> slotHolders = new ConcurrentHashMap<>();
+
     public LimboManager(NoMoreBotsPlugin plugin) {
         this.plugin = plugin;
         this.limboFactory = (LimboFactory) plugin.getServer().getPluginManager()
@@ -25,14 +46,134 @@ public class LimboManager {
             0, 64, 0, // Spawn coordinates (x, y, z)
             0, 0 // Yaw, Pitch
         );
+
+        // Pool size is derived from limbo.max-players and limbo.players-per-shard
+        int maxPlayers = Math.max(1, plugin.getConfigManager().getLimboMaxPlayers());
+        int perShard = Math.max(1, Math.min(maxPlayers, plugin.getConfigManager().getLimboPlayersPerShard()));
+        int shardCount = (maxPlayers + perShard - 1) / perShard;
+        this.shardCapacity = perShard;
+        this.shards = new Limbo[shardCount];
+        this.occupancy = new AtomicIntegerArray(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = limboFactory.createLimbo(limboWorld).setName("NoMoreBots-" + i);
+        }
         
-        // Movement prevention and position enforcement will be handled in LimboFilter
-        // with optimized teleportation to reduce performance impact
-        plugin.getLogger().info("Created limbo world with optimized movement prevention system");
+        // Position enforcement is driven by move packets in LimboFilter; this shared sweep only
+        // catches players whose last correction was debounced and who then went quiet
+        plugin.getTimingWheel().scheduleRepeating(this::sweepPositions, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        plugin.getLogger().info("Created limbo world with " + shardCount + " shard(s) of " + perShard + " players");
+    }
+
+    /**
+     * Spawns the player into the next shard with free capacity.
+     *
+     * @return false if every shard is full, or attack mode's cap is reached, and the player was
+     *         disconnected instead
+     */
+    public boolean sendToLimbo(Player player) {
+        // Attack mode caps admissions below the pool size; the check is not atomic with the
+        // acquire below, so the cap can be overshot by the number of concurrent spawns
+        if (plugin.getAttackMode().isActive() && getTotalOccupancy() >= plugin.getConfigManager().getAttackModeLimboCap()) {
+            reject(player, "Attack mode limbo cap reached");
+            return false;
+        }
+        int shard = acquireShard();
+        if (shard < 0) {
+            reject(player, "All limbo shards are full");
+            return false;
+        }
+
+        LimboFilter filter = new LimboFilter(plugin, player, shard);
+        slotHolders.put(player.getUniqueId(), filter);
+        try {
+            shards[shard].spawnPlayer(player, filter);
+            plugin.getPluginMetrics().limboAdmitted.inc();
+            return true;
+        } catch (RuntimeException e) {
+            filter.releaseShard();
+            throw e;
+        }
+    }
+
+    /**
+     * Frees the shard slot of a player who left the proxy. Covers disconnects between
+     * {@link #sendToLimbo} and the spawn callback, where LimboAPI never calls the filter; the
+     * filter's own release guard keeps the slot from being freed twice.
+     */
+    public void onPlayerDisconnect(UUID uuid) {
+        LimboFilter filter = slotHolders.get(uuid);
+        if (filter != null) {
+            unregister(filter);
+            filter.releaseShard();
+        }
+    }
+
+    private void reject(Player player, String reason) {
+        if (plugin.getLogger().isDebugEnabled()) {
+            plugin.getLogger().debug(reason + ", rejecting " + player.getUsername());
+        }
+        plugin.getPluginMetrics().limboRejected.inc();
+        plugin.getAuditLog().record(AuditEvent.LIMBO_FULL, player.getUniqueId(), player.getUsername(),
+                player.getRemoteAddress().getAddress(), getTotalOccupancy());
+        player.disconnect(plugin.getLanguageManager().getMessage("verification.limbo-full"));
+    }
+
+    // Round-robin over the pool, skipping shards that are at capacity
+    private int acquireShard() {
+        int count = shards.length;
+        int start = Math.floorMod(nextShard.getAndIncrement(), count);
+        for (int i = 0; i < count; i++) {
+            int shard = (start + i) % count;
+            while (true) {
+                int current = occupancy.get(shard);
+                if (current >= shardCapacity) {
+                    break;
+                }
+                if (occupancy.compareAndSet(shard, current, current + 1)) {
+                    return shard;
+                }
+            }
+        }
+        return -1;
+    }
+
+    void register(LimboFilter filter) {
+        spawnedFilters.add(filter);
+    }
+
+    void unregister(LimboFilter filter) {
+        spawnedFilters.remove(filter);
+    }
+
+    private void sweepPositions() {
+        for (LimboFilter filter : spawnedFilters) {
+            filter.sweep();
+        }
+    }
+
+    // Called once per slot by LimboFilter.releaseShard
+    void releaseShard(UUID uuid, LimboFilter filter, int shard) {
+        slotHolders.remove(uuid, filter);
+        occupancy.decrementAndGet(shard);
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public int getShardCapacity() {
+        return shardCapacity;
+    }
+
+    public int getShardOccupancy(int shard) {
+        return occupancy.get(shard);
     }
 
-    public void sendToLimbo(Player player) {
-        Limbo limbo = limboFactory.createLimbo(limboWorld);
-        limbo.spawnPlayer(player, new LimboFilter(plugin, player));
+    public int getTotalOccupancy() {
+        int total = 0;
+        for (int i = 0; i < shards.length; i++) {
+            total += occupancy.get(i);
+        }
+        return total;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,20 @@
+package com.melut.nomorebots.monitoring;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Monotonic counter. Increments are striped and never block. */
+public final class Counter {
+    private final LongAdder value = new LongAdder();
+
+    public void inc() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+}
@@ -0,0 +1,153 @@
+package com.melut.nomorebots.monitoring;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Named metric families rendered in the Prometheus text exposition format. Registration and
+ * scraping share a lock; recording goes straight to the {@link Counter} or {@link Histogram}
+ * and never touches it.
+ */
+public final class MetricsRegistry {
+    private final Map<String, Family> families = new LinkedHashMap<>();
+
+    /** Registers a counter; {@code labels} are name/value pairs. */
+    public Counter counter(String name, String help, String... labels) {
+        Counter counter = new Counter();
+        add(name, help, "counter", labels, counter);
+        return counter;
+    }
+
+    public Histogram histogram(String name, String help, String... labels) {
+        return histogram(name, help, new Histogram(), labels);
+    }
+
+    /** Registers a histogram owned elsewhere, e.g. by {@code DatabaseManager}. */
+    public Histogram histogram(String name, String help, Histogram histogram, String... labels) {
+        add(name, help, "histogram", labels, histogram);
+        return histogram;
+    }
+
+    /** Registers a counter kept elsewhere and read at scrape time. */
+    public void counter(String name, String help, DoubleSupplier supplier, String... labels) {
+        add(name, help, "counter", labels, supplier);
+    }
+
+    /** Registers a value sampled at scrape time. */
+    public void gauge(String name, String help, DoubleSupplier supplier, String... labels) {
+        add(name, help, "gauge", labels, supplier);
+    }
+
+    private synchronized void add(String name, String help, String type, String[] labels, Object metric) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name/value pairs: " + name);
+        }
+        Family family = families.computeIfAbsent(name, key -> new Family(help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.type);
+        }
+        family.children.add(new Child(labels, metric));
+    }
+
+    /** Renders every metric in the Prometheus text format (version 0.0.4). */
+    public synchronized void writePrometheus(StringBuilder out) {
+        for (Map.Entry<String, Family> entry : families.entrySet()) {
+            String name = entry.getKey();
+            Family family = entry.getValue();
+            out.append("# HELP ").append(name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(family.type).append('\n');
+            for (Child child : family.children) {
+                if (child.metric instanceof Counter) {
+                    sample(out, name, child.labels, null, null, ((Counter) child.metric).get());
+                } else if (child.metric instanceof DoubleSupplier) {
+                    double value;
+                    try {
+                        value = ((DoubleSupplier) child.metric).getAsDouble();
+                    } catch (RuntimeException e) {
+                        value = Double.NaN;
+                    }
+                    sample(out, name, child.labels, null, null, value);
+                } else {
+                    Histogram histogram = (Histogram) child.metric;
+                    double[] bounds = histogram.getBounds();
+                    long[] counts = histogram.cumulativeCounts();
+                    for (int i = 0; i < bounds.length; i++) {
+                        sample(out, name + "_bucket", child.labels, "le", Double.toString(bounds[i]), counts[i]);
+                    }
+                    long count = counts[counts.length - 1];
+                    sample(out, name + "_bucket", child.labels, "le", "+Inf", count);
+                    sample(out, name + "_sum", child.labels, null, null, histogram.getSumSeconds());
+                    sample(out, name + "_count", child.labels, null, null, count);
+                }
+            }
+        }
+    }
+
+    private static void sample(StringBuilder out, String name, String[] labels, String extraName, String extraValue, double value) {
+        out.append(name);
+        if (labels.length > 0 || extraName != null) {
+            out.append('{');
+            boolean first = true;
+            for (int i = 0; i < labels.length; i += 2) {
+                if (!first) {
+                    out.append(',');
+                }
+                appendLabel(out, labels[i], labels[i + 1]);
+                first = false;
+            }
+            if (extraName != null) {
+                if (!first) {
+                    out.append(',');
+                }
+                appendLabel(out, extraName, extraValue);
+            }
+            out.append('}');
+        }
+        out.append(' ');
+        if (value == (long) value) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private static void appendLabel(StringBuilder out, String name, String value) {
+        out.append(name).append("=\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                out.append('\\').append(c);
+            } else if (c == '\n') {
+                out.append("\\n");
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    private static final class Family {
+        final String help;
+        final String type;
+        final List<Child> children = new ArrayList<>();
+
+        Family(String help, String type) {
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    private static final class Child {
+        final String[] labels;
+        final Object metric;
+
+        Child(String[] labels, Object metric) {
+            this.labels = labels.clone();
+            this.metric = metric;
+        }
+    }
+}
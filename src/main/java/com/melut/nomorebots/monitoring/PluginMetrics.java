@@ -0,0 +1,137 @@
+package com.melut.nomorebots.monitoring;
+
+import com.melut.nomorebots.NoMoreBotsPlugin;
+import com.melut.nomorebots.database.DatabaseManager;
+import com.melut.nomorebots.limbo.LimboManager;
+import com.melut.nomorebots.security.AttackMode;
+import com.melut.nomorebots.security.JoinRateLimiter;
+
+/**
+ * The plugin's operational metrics. Hot paths hold on to the counters and histograms below;
+ * everything already tracked by another component is sampled from it at scrape time.
+ */
+public final class PluginMetrics {
+    private final MetricsRegistry registry = new MetricsRegistry();
+
+    // Login decisions
+    public final Counter joinPreLoginDenied;
+    public final Counter joinRateLimited;
+    public final Counter joinTimedOut;
+    public final Counter joinBypass;
+    public final Counter joinCooldown;
+    public final Counter joinVerify;
+    public final Counter joinSessionLimit;
+    public final Counter joinError;
+    public final Histogram loginDecisionLatency;
+
+    // Limbo
+    public final Counter limboAdmitted;
+    public final Counter limboRejected;
+    public final Counter limboPacketsProcessed;
+    public final Counter limboPacketsCoalesced;
+    public final Counter limboPacketsDropped;
+    public final Counter limboFloodKicks;
+    public final Counter limboTeleportsSpawn;
+    public final Counter limboTeleportsCorrection;
+    public final Counter limboTeleportsSweep;
+
+    // Verification stages
+    public final Counter chatPassed;
+    public final Counter chatFailed;
+    public final Counter movementStepPassed;
+    public final Counter behaviorFailed;
+    public final Counter behaviorFastTracked;
+    public final Counter verified;
+    public final Counter timedOut;
+
+    public PluginMetrics(NoMoreBotsPlugin plugin) {
+        String decisions = "nomorebots_join_decisions_total";
+        String decisionsHelp = "Login decisions by outcome";
+        joinPreLoginDenied = registry.counter(decisions, decisionsHelp, "decision", "pre_login_denied");
+        joinRateLimited = registry.counter(decisions, decisionsHelp, "decision", "rate_limited");
+        joinTimedOut = registry.counter(decisions, decisionsHelp, "decision", "timed_out");
+        joinBypass = registry.counter(decisions, decisionsHelp, "decision", "bypass");
+        joinCooldown = registry.counter(decisions, decisionsHelp, "decision", "cooldown");
+        joinVerify = registry.counter(decisions, decisionsHelp, "decision", "verify");
+        joinSessionLimit = registry.counter(decisions, decisionsHelp, "decision", "session_limit");
+        joinError = registry.counter(decisions, decisionsHelp, "decision", "error");
+        loginDecisionLatency = registry.histogram("nomorebots_login_decision_seconds",
+                "Time from login to a verification decision");
+
+        JoinRateLimiter limiter = plugin.getJoinRateLimiter();
+        for (JoinRateLimiter.BucketTable table : new JoinRateLimiter.BucketTable[]{limiter.getIpBuckets(), limiter.getSubnetBuckets()}) {
+            registry.counter("nomorebots_rate_limit_total", "Join rate limiter checks by bucket and result",
+                    table::getAllowed, "bucket", table.getName(), "result", "allowed");
+            registry.counter("nomorebots_rate_limit_total", "Join rate limiter checks by bucket and result",
+                    table::getRejected, "bucket", table.getName(), "result", "rejected");
+        }
+
+        AttackMode attackMode = plugin.getAttackMode();
+        registry.gauge("nomorebots_attack_mode", "1 while attack mode is active", () -> attackMode.isActive() ? 1 : 0);
+        registry.gauge("nomorebots_join_rate", "Joins per second over the last attack mode sample", attackMode::getJoinRate);
+        registry.counter("nomorebots_attack_mode_activations_total", "Times attack mode was entered", attackMode::getActivationCount);
+
+        LimboManager limbo = plugin.getLimboManager();
+        limboAdmitted = registry.counter("nomorebots_limbo_admissions_total", "Limbo spawn attempts by result", "result", "admitted");
+        limboRejected = registry.counter("nomorebots_limbo_admissions_total", "Limbo spawn attempts by result", "result", "full");
+        String packets = "nomorebots_limbo_packets_total";
+        String packetsHelp = "Inbound limbo movement and chat packets by handling";
+        limboPacketsProcessed = registry.counter(packets, packetsHelp, "result", "processed");
+        limboPacketsCoalesced = registry.counter(packets, packetsHelp, "result", "coalesced");
+        limboPacketsDropped = registry.counter(packets, packetsHelp, "result", "dropped");
+        limboFloodKicks = registry.counter("nomorebots_limbo_flood_kicks_total", "Players kicked for exceeding the packet budget");
+        // Enforcement packets per second is rate() over this counter
+        String teleports = "nomorebots_limbo_teleports_total";
+        String teleportsHelp = "Position enforcement teleports sent to limbo players";
+        limboTeleportsSpawn = registry.counter(teleports, teleportsHelp, "reason", "spawn");
+        limboTeleportsCorrection = registry.counter(teleports, teleportsHelp, "reason", "correction");
+        limboTeleportsSweep = registry.counter(teleports, teleportsHelp, "reason", "sweep");
+        registry.gauge("nomorebots_limbo_players", "Players currently in limbo", limbo::getTotalOccupancy);
+        registry.gauge("nomorebots_limbo_capacity", "Limbo player capacity across all shards",
+                () -> (double) limbo.getShardCount() * limbo.getShardCapacity());
+        for (int i = 0; i < limbo.getShardCount(); i++) {
+            int shard = i;
+            registry.gauge("nomorebots_limbo_shard_players", "Players per limbo shard",
+                    () -> limbo.getShardOccupancy(shard), "shard", String.valueOf(shard));
+        }
+
+        String stages = "nomorebots_stage_results_total";
+        String stagesHelp = "Verification stage results";
+        chatPassed = registry.counter(stages, stagesHelp, "stage", "chat", "result", "pass");
+        chatFailed = registry.counter(stages, stagesHelp, "stage", "chat", "result", "fail");
+        movementStepPassed = registry.counter(stages, stagesHelp, "stage", "movement_step", "result", "pass");
+        behaviorFailed = registry.counter(stages, stagesHelp, "stage", "behavior", "result", "fail");
+        behaviorFastTracked = registry.counter(stages, stagesHelp, "stage", "behavior", "result", "fast_track");
+        verified = registry.counter("nomorebots_verifications_total", "Finished verification sessions", "result", "verified");
+        timedOut = registry.counter("nomorebots_verifications_total", "Finished verification sessions", "result", "timed_out");
+        registry.gauge("nomorebots_active_sessions", "Verification sessions in progress",
+                () -> plugin.getVerificationManager().getSessionCount());
+
+        DatabaseManager database = plugin.getDatabaseManager();
+        registry.gauge("nomorebots_db_write_queue_depth", "Player updates waiting for the next flush", database::getPendingWriteCount);
+        registry.histogram("nomorebots_db_query_seconds", "Database operation latency", database.getLoadLatency(), "op", "load");
+        registry.histogram("nomorebots_db_query_seconds", "Database operation latency", database.getCreateLatency(), "op", "create");
+        registry.histogram("nomorebots_db_query_seconds", "Database operation latency", database.getWriteLatency(), "op", "write_batch");
+        registry.counter("nomorebots_cache_requests_total", "Player data cache lookups", database::getCacheHits, "result", "hit");
+        registry.counter("nomorebots_cache_requests_total", "Player data cache lookups", database::getCacheMisses, "result", "miss");
+        registry.counter("nomorebots_cache_evictions_total", "Player data cache evictions", database::getCacheEvictions);
+        registry.gauge("nomorebots_cache_entries", "Player data cache entries", database::getCacheSize);
+        registry.gauge("nomorebots_verified_index_entries", "Active cooldowns held in memory",
+                () -> database.getVerifiedIndex().size());
+        registry.counter("nomorebots_db_retention_rows_pruned_total", "Inactive player rows deleted by the retention job",
+                database::getRetentionRowsPruned);
+        registry.counter("nomorebots_db_retention_reclaimed_bytes_total", "Bytes returned to the file system after pruning",
+                database::getRetentionBytesReclaimed);
+        registry.gauge("nomorebots_deny_index_entries", "Active timeouts held in memory for pre-login rejection",
+                () -> database.getDenyIndex().size());
+
+        registry.gauge("nomorebots_timers_active", "Timers scheduled on the timing wheel", () -> plugin.getTimingWheel().getActiveTimers());
+        registry.counter("nomorebots_audit_dropped_total", "Audit records dropped because the buffer was full",
+                () -> plugin.getAuditLog().getDroppedCount());
+        registry.gauge("nomorebots_audit_pending", "Audit records waiting to be written", () -> plugin.getAuditLog().getPendingCount());
+    }
+
+    public MetricsRegistry getRegistry() {
+        return registry;
+    }
+}
@@ -0,0 +1,86 @@
+package com.melut.nomorebots.security;
+
+import com.melut.nomorebots.config.ConfigManager;
+import com.melut.nomorebots.config.ConfigSnapshot;
+import org.slf4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Switches the plugin into a load-shedding mode while logins arrive faster than the configured
+ * threshold. Logins only bump a {@link LongAdder}; once a second {@link #sample()} turns the count
+ * into a rate. The mode turns on as soon as one sample reaches the enter threshold and turns off
+ * only after the rate has stayed under the lower exit threshold for the configured delay, so a
+ * wave of joins that pauses briefly does not flip it back and forth.
+ */
+public class AttackMode {
+    private final Logger logger;
+    private final ConfigManager configManager;
+    private final LongAdder joins = new LongAdder();
+    private final LongAdder activations = new LongAdder();
+    private volatile boolean active;
+    private volatile double joinRate;
+
+    // Only touched by sample(), which runs on the timing wheel
+    private long lastSampleNanos = System.nanoTime();
+    private long quietNanos;
+
+    public AttackMode(Logger logger, ConfigManager configManager) {
+        this.logger = logger;
+        this.configManager = configManager;
+    }
+
+    public void recordJoin() {
+        joins.increment();
+    }
+
+    /** Folds the logins since the previous call into the current rate and updates the mode. */
+    public void sample() {
+        long now = System.nanoTime();
+        long elapsed = Math.max(1, now - lastSampleNanos);
+        lastSampleNanos = now;
+        double rate = joins.sumThenReset() * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+        joinRate = rate;
+
+        ConfigSnapshot config = configManager.getSnapshot();
+        if (!config.attackModeEnabled) {
+            if (active) {
+                active = false;
+                logger.info("Attack mode disabled in config, leaving attack mode");
+            }
+            return;
+        }
+
+        if (!active) {
+            if (rate >= config.attackModeEnterRate) {
+                active = true;
+                quietNanos = 0;
+                activations.increment();
+                logger.warn("Attack mode enabled: " + Math.round(rate) + " joins/s (threshold " + config.attackModeEnterRate + ")");
+            }
+        } else if (rate < config.attackModeExitRate) {
+            quietNanos += elapsed;
+            if (quietNanos >= TimeUnit.SECONDS.toNanos(config.attackModeExitDelay)) {
+                active = false;
+                logger.info("Attack mode disabled: join rate below " + config.attackModeExitRate + " joins/s for "
+                        + config.attackModeExitDelay + "s");
+            }
+        } else {
+            quietNanos = 0;
+        }
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /** Joins per second measured by the last sample. */
+    public double getJoinRate() {
+        return joinRate;
+    }
+
+    public long getActivationCount() {
+        return activations.sum();
+    }
+}
@@ -0,0 +1,246 @@
+package com.melut.nomorebots.security;
+
+import org.slf4j.Logger;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+
+/**
+ * Immutable, path-compressed binary trie of IPv4 and IPv6 CIDR ranges. Addresses are handled as
+ * a pair of longs (high and low 64 bits) and each node stores its prefix the same way, so a
+ * lookup is a handful of mask-and-compare steps. IPv4 lookups, and IPv6 lookups while no IPv6
+ * range is configured, allocate nothing; otherwise an IPv6 lookup copies the 16 address bytes
+ * once, since {@link java.net.Inet6Address} has no accessor that avoids the copy. Build a new
+ * trie and swap the reference to reload.
+ */
+public final class CidrTrie {
+    private static final CidrTrie EMPTY = new CidrTrie(null, null, 0);
+
+    private final Node ipv4Root;
+    private final Node ipv6Root;
+    private final int rangeCount;
+
+    private CidrTrie(Node ipv4Root, Node ipv6Root, int rangeCount) {
+        this.ipv4Root = ipv4Root;
+        this.ipv6Root = ipv6Root;
+        this.rangeCount = rangeCount;
+    }
+
+    public static CidrTrie empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Parses entries such as {@code 10.0.0.0/8}, {@code 2001:db8::/32}, a single address, or
+     * {@code localhost}. Invalid entries are logged and skipped.
+     */
+    public static CidrTrie parse(List<String> entries, Logger logger) {
+        Builder builder = new Builder();
+        for (String raw : entries) {
+            String entry = raw == null ? "" : raw.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            if (entry.equalsIgnoreCase("localhost")) {
+                builder.add("127.0.0.1/32");
+                builder.add("::1/128");
+                continue;
+            }
+            if (!builder.add(entry)) {
+                logger.warn("Ignoring invalid whitelist entry: {}", entry);
+            }
+        }
+        return builder.build();
+    }
+
+    public boolean contains(InetAddress address) {
+        if (address instanceof Inet4Address) {
+            // Inet4Address.hashCode() is the raw address, no array copy needed
+            return contains(ipv4Root, (long) address.hashCode() << 32, 0L, 32);
+        }
+        if (ipv6Root == null) {
+            return false;
+        }
+        byte[] raw = address.getAddress();
+        return contains(ipv6Root, toLong(raw, 0), toLong(raw, 8), 128);
+    }
+
+    public int size() {
+        return rangeCount;
+    }
+
+    private static boolean contains(Node node, long high, long low, int maxBits) {
+        while (node != null) {
+            if (!matches(node, high, low)) {
+                return false;
+            }
+            if (node.terminal) {
+                return true;
+            }
+            if (node.length >= maxBits) {
+                return false;
+            }
+            node = bitAt(high, low, node.length) == 0 ? node.zero : node.one;
+        }
+        return false;
+    }
+
+    private static boolean matches(Node node, long high, long low) {
+        int length = node.length;
+        if (length <= 64) {
+            return ((high ^ node.high) & mask(length)) == 0;
+        }
+        return high == node.high && ((low ^ node.low) & mask(length - 64)) == 0;
+    }
+
+    private static long mask(int bits) {
+        return bits == 0 ? 0L : -1L << (64 - bits);
+    }
+
+    private static int bitAt(long high, long low, int index) {
+        return index < 64 ? (int) (high >>> (63 - index)) & 1 : (int) (low >>> (127 - index)) & 1;
+    }
+
+    private static long toLong(byte[] raw, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (raw[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static final class Node {
+        private final long high;
+        private final long low;
+        private final int length;
+        private boolean terminal;
+        private Node zero;
+        private Node one;
+
+        Node(long high, long low, int length, boolean terminal) {
+            this.length = length;
+            this.high = length >= 64 ? high : high & mask(length);
+            this.low = length <= 64 ? 0L : low & mask(length - 64);
+            this.terminal = terminal;
+        }
+    }
+
+    /** Mutable builder; the finished trie is never modified again. */
+    public static final class Builder {
+        private Node ipv4Root;
+        private Node ipv6Root;
+        private int rangeCount;
+
+        /**
+         * Adds a CIDR range or single literal address.
+         *
+         * @return false if the entry could not be parsed
+         */
+        public boolean add(String cidr) {
+            int slash = cidr.indexOf('/');
+            String host = slash < 0 ? cidr : cidr.substring(0, slash);
+            if (!isLiteral(host)) {
+                return false;
+            }
+
+            InetAddress address;
+            try {
+                address = InetAddress.getByName(host);
+            } catch (UnknownHostException e) {
+                return false;
+            }
+
+            int maxBits = address instanceof Inet4Address ? 32 : 128;
+            int length = maxBits;
+            if (slash >= 0) {
+                try {
+                    length = Integer.parseInt(cidr.substring(slash + 1));
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+                if (length < 0 || length > maxBits) {
+                    return false;
+                }
+            }
+
+            if (maxBits == 32) {
+                ipv4Root = insert(ipv4Root, (long) address.hashCode() << 32, 0L, length);
+            } else {
+                byte[] raw = address.getAddress();
+                ipv6Root = insert(ipv6Root, toLong(raw, 0), toLong(raw, 8), length);
+            }
+            rangeCount++;
+            return true;
+        }
+
+        public CidrTrie build() {
+            return new CidrTrie(ipv4Root, ipv6Root, rangeCount);
+        }
+
+        // Never resolve host names while parsing, only numeric literals
+        private static boolean isLiteral(String host) {
+            if (host.isEmpty()) {
+                return false;
+            }
+            for (int i = 0; i < host.length(); i++) {
+                char c = host.charAt(i);
+                boolean valid = (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F') || c == ':' || c == '.';
+                if (!valid) {
+                    return false;
+                }
+            }
+            return host.indexOf(':') >= 0 || host.chars().filter(c -> c == '.').count() == 3;
+        }
+
+        private static Node insert(Node node, long high, long low, int length) {
+            if (node == null) {
+                return new Node(high, low, length, true);
+            }
+
+            int common = commonPrefix(node.high, node.low, high, low, Math.min(node.length, length));
+            if (common == node.length) {
+                if (node.terminal) {
+                    // Already covered by a wider range
+                    return node;
+                }
+                if (length == node.length) {
+                    node.terminal = true;
+                    // Everything below is now redundant
+                    node.zero = null;
+                    node.one = null;
+                    return node;
+                }
+                if (bitAt(high, low, node.length) == 0) {
+                    node.zero = insert(node.zero, high, low, length);
+                } else {
+                    node.one = insert(node.one, high, low, length);
+                }
+                return node;
+            }
+
+            Node leaf = new Node(high, low, length, true);
+            if (common == length) {
+                // The new range contains the whole subtree
+                return leaf;
+            }
+
+            Node branch = new Node(high, low, common, false);
+            if (bitAt(high, low, common) == 0) {
+                branch.zero = leaf;
+                branch.one = node;
+            } else {
+                branch.zero = node;
+                branch.one = leaf;
+            }
+            return branch;
+        }
+
+        private static int commonPrefix(long high1, long low1, long high2, long low2, int limit) {
+            long diffHigh = high1 ^ high2;
+            int common = diffHigh != 0 ? Long.numberOfLeadingZeros(diffHigh) : 64 + Long.numberOfLeadingZeros(low1 ^ low2);
+            return Math.min(common, limit);
+        }
+    }
+}
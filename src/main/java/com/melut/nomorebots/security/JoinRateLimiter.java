@@ -0,0 +1,179 @@
+package com.melut.nomorebots.security;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free join limiter made of two striped token-bucket tables: one keyed by the
+ * full address and one keyed by the subnet prefix (/24 for IPv4, /64 for IPv6 by default).
+ * Buckets live in a fixed-size {@link AtomicLongArray}, so memory stays constant no matter
+ * how many distinct addresses an attacker rotates through.
+ */
+public class JoinRateLimiter {
+    private final BucketTable ipBuckets;
+    private final BucketTable subnetBuckets;
+    private final int ipv4Prefix;
+    private final int ipv6Prefix;
+    private final long seed = ThreadLocalRandom.current().nextLong();
+
+    public JoinRateLimiter(int stripes, int ipCapacity, double ipRefillPerSecond,
+                           int subnetCapacity, double subnetRefillPerSecond, int ipv4Prefix, int ipv6Prefix) {
+        this(stripes, ipCapacity, ipRefillPerSecond, subnetCapacity, subnetRefillPerSecond, ipv4Prefix, ipv6Prefix, null);
+    }
+
+    /**
+     * @param previous limiter this one replaces on reload, whose allowed and rejected counts carry
+     *                 over; its buckets do not, so every address starts again with a full bucket
+     */
+    public JoinRateLimiter(int stripes, int ipCapacity, double ipRefillPerSecond,
+                           int subnetCapacity, double subnetRefillPerSecond, int ipv4Prefix, int ipv6Prefix,
+                           JoinRateLimiter previous) {
+        this.ipBuckets = new BucketTable("ip", stripes, ipCapacity, ipRefillPerSecond,
+                previous != null ? previous.ipBuckets : null);
+        this.subnetBuckets = new BucketTable("subnet", stripes, subnetCapacity, subnetRefillPerSecond,
+                previous != null ? previous.subnetBuckets : null);
+        this.ipv4Prefix = Math.max(0, Math.min(32, ipv4Prefix));
+        this.ipv6Prefix = Math.max(0, Math.min(64, ipv6Prefix));
+    }
+
+    /**
+     * Takes one token from the address bucket and, if that succeeds, one from the subnet bucket.
+     * When the subnet refuses, the address token is given back, so a busy /24 never eats into
+     * the budget of the addresses in it.
+     *
+     * @return true if the join is within budget
+     */
+    public boolean tryAcquire(InetAddress address) {
+        long now = System.currentTimeMillis();
+        long ipKey;
+        long subnetKey;
+        if (address instanceof Inet4Address) {
+            // Inet4Address.hashCode() is the raw address, no array copy needed
+            int bits = address.hashCode();
+            int mask = ipv4Prefix == 0 ? 0 : -1 << (32 - ipv4Prefix);
+            ipKey = bits & 0xFFFFFFFFL;
+            subnetKey = (bits & mask) & 0xFFFFFFFFL | (long) ipv4Prefix << 32;
+        } else {
+            byte[] raw = address.getAddress();
+            long high = 0;
+            long low = 0;
+            for (int i = 0; i < 8; i++) {
+                high = (high << 8) | (raw[i] & 0xFF);
+                low = (low << 8) | (raw[i + 8] & 0xFF);
+            }
+            long mask = ipv6Prefix == 0 ? 0 : -1L << (64 - ipv6Prefix);
+            ipKey = high * 31 + low;
+            subnetKey = (high & mask) ^ 0x6000000000000000L;
+        }
+
+        long ipHash = mix(ipKey ^ seed);
+        if (!ipBuckets.tryAcquire(ipHash, now)) {
+            return false;
+        }
+        if (!subnetBuckets.tryAcquire(mix(subnetKey ^ (seed * 31)), now)) {
+            ipBuckets.refund(ipHash);
+            return false;
+        }
+        return true;
+    }
+
+    public BucketTable getIpBuckets() { return ipBuckets; }
+    public BucketTable getSubnetBuckets() { return subnetBuckets; }
+
+    private static long mix(long key) {
+        // MurmurHash3 64-bit finalizer
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * One striped token-bucket table. Each slot packs the last refill time (40 bits, millis since
+     * the table was created) and the remaining tokens (24 bits, in thousandths of a token) into a
+     * single long that is updated with CAS.
+     */
+    public static final class BucketTable {
+        private static final int TOKEN_BITS = 24;
+        private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+        private static final long ONE_TOKEN = 1000;
+
+        private final String name;
+        private final AtomicLongArray slots;
+        private final int mask;
+        private final long capacity;
+        private final double refillPerMilli;
+        private final long epoch = System.currentTimeMillis() - 1;
+        private final LongAdder allowed;
+        private final LongAdder rejected;
+
+        BucketTable(String name, int stripes, int capacity, double refillPerSecond, BucketTable previous) {
+            this.name = name;
+            this.allowed = previous != null ? previous.allowed : new LongAdder();
+            this.rejected = previous != null ? previous.rejected : new LongAdder();
+            int size = Integer.highestOneBit(Math.max(16, stripes - 1) << 1);
+            this.slots = new AtomicLongArray(size);
+            this.mask = size - 1;
+            this.capacity = Math.max(1, Math.min(capacity, TOKEN_MASK / ONE_TOKEN)) * ONE_TOKEN;
+            // thousandths of a token per millisecond == tokens per second
+            this.refillPerMilli = Math.max(0.0, refillPerSecond);
+        }
+
+        boolean tryAcquire(long hash, long nowMillis) {
+            int index = (int) hash & mask;
+            long now = nowMillis - epoch;
+            while (true) {
+                long current = slots.get(index);
+                long tokens;
+                long stamp = now;
+                if (current == 0) {
+                    tokens = capacity;
+                } else {
+                    long last = current >>> TOKEN_BITS;
+                    tokens = current & TOKEN_MASK;
+                    long refill = (long) ((now - last) * refillPerMilli);
+                    if (refill > 0) {
+                        tokens = Math.min(capacity, tokens + refill);
+                    } else {
+                        // Keep the old stamp so sub-token refill keeps accumulating under frequent hits
+                        stamp = last;
+                    }
+                }
+
+                boolean granted = tokens >= ONE_TOKEN;
+                long next = (stamp << TOKEN_BITS) | (granted ? tokens - ONE_TOKEN : tokens);
+                if (slots.compareAndSet(index, current, next)) {
+                    if (granted) {
+                        allowed.increment();
+                    } else {
+                        rejected.increment();
+                    }
+                    return granted;
+                }
+            }
+        }
+
+        /** Gives back a token taken by {@link #tryAcquire} for a join another table refused. */
+        void refund(long hash) {
+            int index = (int) hash & mask;
+            while (true) {
+                long current = slots.get(index);
+                long tokens = Math.min(capacity, (current & TOKEN_MASK) + ONE_TOKEN);
+                if (slots.compareAndSet(index, current, (current & ~TOKEN_MASK) | tokens)) {
+                    allowed.decrement();
+                    return;
+                }
+            }
+        }
+
+        public String getName() { return name; }
+        public long getAllowed() { return allowed.sum(); }
+        public long getRejected() { return rejected.sum(); }
+        public int getStripes() { return slots.length(); }
+    }
+}
@@ -0,0 +1,231 @@
+package com.melut.nomorebots.timer;
+
+import org.slf4j.Logger;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashed timing wheel that owns every per-player deadline and periodic tick in the plugin.
+ * Scheduling and cancelling are O(1) from any thread: both are handed to the driver through
+ * lock-free queues, and the driver (a single repeating proxy task calling {@link #advance()})
+ * is the only thread that touches the buckets.
+ */
+public class TimingWheel {
+    private static final int STATE_ACTIVE = 0;
+    private static final int STATE_RUNNING = 1;
+    private static final int STATE_CANCELLED = 2;
+    private static final int STATE_EXPIRED = 3;
+
+    private final Logger logger;
+    private final long tickNanos;
+    private final Bucket[] buckets;
+    private final int mask;
+    private final long startNanos = System.nanoTime();
+    private final Queue<Timer> pendingAdds = new ConcurrentLinkedQueue<>();
+    private final Queue<Timer> pendingCancels = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger activeTimers = new AtomicInteger();
+
+    // Driver-owned
+    private long currentTick = 0;
+
+    public TimingWheel(Logger logger, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        this.logger = logger;
+        this.tickNanos = Math.max(1, unit.toNanos(tickDuration));
+        int size = Integer.highestOneBit(Math.max(2, ticksPerWheel - 1) << 1);
+        this.buckets = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new Bucket();
+        }
+        this.mask = size - 1;
+    }
+
+    public Timer schedule(Runnable task, long delay, TimeUnit unit) {
+        return enqueue(task, unit.toNanos(delay), 0);
+    }
+
+    public Timer scheduleRepeating(Runnable task, long period, TimeUnit unit) {
+        long periodNanos = Math.max(tickNanos, unit.toNanos(period));
+        return enqueue(task, periodNanos, periodNanos);
+    }
+
+    private Timer enqueue(Runnable task, long delayNanos, long periodNanos) {
+        Timer timer = new Timer(this, task, System.nanoTime() - startNanos + Math.max(0, delayNanos), periodNanos);
+        activeTimers.incrementAndGet();
+        pendingAdds.add(timer);
+        return timer;
+    }
+
+    /**
+     * Processes every tick that has elapsed since the previous call. Must only be called from
+     * one thread at a time (the repeating driver task).
+     */
+    public void advance() {
+        long now = System.nanoTime() - startNanos;
+        long targetTick = now / tickNanos;
+
+        processCancels();
+        transferAdds();
+
+        while (currentTick <= targetTick) {
+            expire(buckets[(int) (currentTick & mask)], now);
+            currentTick++;
+        }
+    }
+
+    /** Number of scheduled timers that have not expired or been cancelled. */
+    public int getActiveTimers() {
+        return activeTimers.get();
+    }
+
+    private void transferAdds() {
+        Timer timer;
+        while ((timer = pendingAdds.poll()) != null) {
+            if (timer.state.get() == STATE_CANCELLED) {
+                continue;
+            }
+            place(timer);
+        }
+    }
+
+    private void processCancels() {
+        Timer timer;
+        while ((timer = pendingCancels.poll()) != null) {
+            if (timer.bucket != null) {
+                timer.bucket.remove(timer);
+            }
+        }
+    }
+
+    private void place(Timer timer) {
+        long deadlineTick = timer.deadline / tickNanos;
+        timer.remainingRounds = (deadlineTick - currentTick) / buckets.length;
+        long tick = Math.max(deadlineTick, currentTick);
+        buckets[(int) (tick & mask)].add(timer);
+    }
+
+    private void expire(Bucket bucket, long now) {
+        Timer timer = bucket.head;
+        while (timer != null) {
+            Timer next = timer.next;
+            if (timer.remainingRounds <= 0) {
+                bucket.remove(timer);
+                if (timer.deadline <= now) {
+                    run(timer, now);
+                } else {
+                    // Deadline falls later in this tick, never fire early
+                    timer.remainingRounds = 0;
+                    buckets[(int) ((currentTick + 1) & mask)].add(timer);
+                }
+            } else {
+                timer.remainingRounds--;
+            }
+            timer = next;
+        }
+    }
+
+    private void run(Timer timer, long now) {
+        boolean repeating = timer.periodNanos > 0;
+        if (!timer.state.compareAndSet(STATE_ACTIVE, repeating ? STATE_RUNNING : STATE_EXPIRED)) {
+            return;
+        }
+        if (!repeating) {
+            activeTimers.decrementAndGet();
+        }
+
+        try {
+            timer.task.run();
+        } catch (Throwable t) {
+            logger.error("Timer task failed", t);
+        }
+
+        if (repeating && timer.state.compareAndSet(STATE_RUNNING, STATE_ACTIVE)) {
+            timer.deadline = now + timer.periodNanos;
+            place(timer);
+        }
+    }
+
+    /** Handle to a scheduled task. */
+    public static final class Timer {
+        private final TimingWheel wheel;
+        private final Runnable task;
+        private final long periodNanos;
+        private final AtomicInteger state = new AtomicInteger(STATE_ACTIVE);
+
+        // Driver-owned
+        private long deadline;
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timer prev;
+        private Timer next;
+
+        private Timer(TimingWheel wheel, Runnable task, long deadline, long periodNanos) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+            this.periodNanos = periodNanos;
+        }
+
+        /**
+         * Cancels the timer. Safe to call more than once and from any thread.
+         *
+         * @return true if this call cancelled the timer
+         */
+        public boolean cancel() {
+            while (true) {
+                int current = state.get();
+                if (current != STATE_ACTIVE && current != STATE_RUNNING) {
+                    return false;
+                }
+                if (state.compareAndSet(current, STATE_CANCELLED)) {
+                    wheel.activeTimers.decrementAndGet();
+                    wheel.pendingCancels.add(this);
+                    return true;
+                }
+            }
+        }
+
+        public boolean isCancelled() {
+            return state.get() == STATE_CANCELLED;
+        }
+    }
+
+    // Intrusive doubly linked list, only touched by the driver
+    private static final class Bucket {
+        private Timer head;
+        private Timer tail;
+
+        void add(Timer timer) {
+            timer.bucket = this;
+            timer.prev = tail;
+            timer.next = null;
+            if (tail == null) {
+                head = timer;
+            } else {
+                tail.next = timer;
+            }
+            tail = timer;
+        }
+
+        void remove(Timer timer) {
+            if (timer.bucket != this) {
+                return;
+            }
+            if (timer.prev == null) {
+                head = timer.next;
+            } else {
+                timer.prev.next = timer.next;
+            }
+            if (timer.next == null) {
+                tail = timer.prev;
+            } else {
+                timer.next.prev = timer.prev;
+            }
+            timer.prev = null;
+            timer.next = null;
+            timer.bucket = null;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.melut.nomorebots.verification;
+
+import com.melut.nomorebots.config.ConfigSnapshot;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The movement stage compiled from config: an ordered array of primitive steps shared by every
+ * session. Sessions only keep a cursor into it, so the per-packet check is a couple of float
+ * comparisons with no parsing, lower-casing or allocation.
+ */
+public final class MovementChallenge {
+    private final Step[] steps;
+
+    private MovementChallenge(Step[] steps) {
+        this.steps = steps;
+    }
+
+    /** Compiles the validated {@code direction:seconds} entries and angle bounds of a snapshot. */
+    public static MovementChallenge compile(ConfigSnapshot config) {
+        List<String> directions = config.movementDirections;
+        Step[] steps = new Step[directions.size()];
+        for (int i = 0; i < steps.length; i++) {
+            String entry = directions.get(i);
+            int colon = entry.indexOf(':');
+            String name = entry.substring(0, colon);
+            int seconds = Integer.parseInt(entry.substring(colon + 1));
+            switch (name) {
+                case "up":
+                    steps[i] = new Step(name, Step.PITCH, config.upPitchMin, config.upPitchMax, seconds);
+                    break;
+                case "down":
+                    steps[i] = new Step(name, Step.PITCH, config.downPitchMin, config.downPitchMax, seconds);
+                    break;
+                case "left":
+                    // Left is configured on a 0-360 yaw scale
+                    steps[i] = new Step(name, Step.YAW_NORMALIZED, config.leftYawMin, config.leftYawMax, seconds);
+                    break;
+                default:
+                    // Right is configured on the raw (possibly negative) yaw
+                    steps[i] = new Step(name, Step.YAW, config.rightYawMin, config.rightYawMax, seconds);
+                    break;
+            }
+        }
+        return new MovementChallenge(steps);
+    }
+
+    public int size() {
+        return steps.length;
+    }
+
+    public Step getStep(int index) {
+        return steps[index];
+    }
+
+    /** One direction to look at and how long to hold it. Immutable. */
+    public static final class Step {
+        static final int PITCH = 0;
+        static final int YAW = 1;
+        static final int YAW_NORMALIZED = 2;
+
+        private final String name;
+        private final String messageKey;
+        private final int axis;
+        private final float min;
+        private final float max;
+        private final int holdSeconds;
+        private final long holdNanos;
+
+        Step(String name, int axis, double min, double max, int holdSeconds) {
+            this.name = name;
+            this.messageKey = "verification.movement-" + name;
+            this.axis = axis;
+            this.min = (float) min;
+            this.max = (float) max;
+            this.holdSeconds = holdSeconds;
+            this.holdNanos = TimeUnit.SECONDS.toNanos(holdSeconds);
+        }
+
+        public boolean matches(float yaw, float pitch) {
+            float value;
+            switch (axis) {
+                case PITCH:
+                    value = pitch;
+                    break;
+                case YAW_NORMALIZED:
+                    value = ((yaw % 360) + 360) % 360;
+                    break;
+                default:
+                    value = yaw;
+                    break;
+            }
+            return value >= min && value <= max;
+        }
+
+        public String getName() { return name; }
+        public String getMessageKey() { return messageKey; }
+        public int getHoldSeconds() { return holdSeconds; }
+        public long getHoldNanos() { return holdNanos; }
+    }
+}
@@ -0,0 +1,236 @@
+package com.melut.nomorebots.verification;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming features over the last {@value #WINDOW} rotation packets of one session, kept in
+ * primitive ring buffers with running sums so every packet costs O(1) and allocates nothing.
+ *
+ * <ul>
+ *   <li><b>Flicks</b>: angular velocity above what a hand on a mouse produces.</li>
+ *   <li><b>Snaps</b>: large single-packet turns that are perfectly straight (one axis exactly
+ *       unchanged) or exactly repeat the previous delta, the signature of scripted rotation.</li>
+ *   <li><b>Jitter</b>: standard deviation of the change between consecutive deltas while the
+ *       camera moves. Real aim wobbles; interpolated rotation is perfectly smooth.</li>
+ *   <li><b>Timing entropy</b>: Shannon entropy of the inter-packet intervals in 5ms buckets.
+ *       Vanilla clients send on the 50ms tick, so a single bucket is normal and never counts
+ *       against a player; only a clearly irregular stream counts as human.</li>
+ * </ul>
+ *
+ * <p>{@link #score()} folds these into [-1, 1], positive meaning bot-like. Not thread-safe; fed
+ * from the player's packet callbacks only.</p>
+ */
+public final class RotationAnalyzer {
+    static final int WINDOW = 64;
+    private static final int MASK = WINDOW - 1;
+    private static final int BUCKETS = 32;
+    private static final long BUCKET_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long MIN_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final float FLICK_DEGREES_PER_SECOND = 1500f;
+    private static final float SNAP_DEGREES = 25f;
+    private static final float MOVING_DEGREES = 0.5f;
+    private static final double SMOOTH_JITTER = 0.01;
+    private static final double ERRATIC_JITTER = 30.0;
+    private static final double HIGH_ENTROPY_BITS = 2.0;
+
+    private static final int FLAG_MOVING = 1;
+    private static final int FLAG_SNAP = 2;
+    private static final int FLAG_FLICK = 4;
+
+    // c * log2(c) for every count a bucket can reach, so entropy updates are table lookups
+    private static final double[] C_LOG_C = new double[WINDOW + 1];
+
+    static {
+        for (int c = 1; c <= WINDOW; c++) {
+            C_LOG_C[c] = c * (Math.log(c) / Math.log(2));
+        }
+    }
+
+    private final float[] jerk = new float[WINDOW];
+    private final byte[] flags = new byte[WINDOW];
+    private final byte[] bucket = new byte[WINDOW];
+    private final int[] bucketCounts = new int[BUCKETS];
+    private int head;
+    private int size;
+    private long total;
+
+    private int movingCount;
+    private int snapCount;
+    private int flickCount;
+    private double jerkSum;
+    private double jerkSumSquares;
+    private double bucketCLogC;
+
+    private boolean hasPrevious;
+    private boolean hasPreviousDelta;
+    private float previousYaw;
+    private float previousPitch;
+    private float previousDeltaYaw;
+    private float previousDeltaPitch;
+    private long previousNanos;
+
+    /** Adds one rotation sample taken at {@code nanos} ({@link System#nanoTime()}). */
+    public void record(float yaw, float pitch, long nanos) {
+        if (!hasPrevious) {
+            hasPrevious = true;
+            previousYaw = yaw;
+            previousPitch = pitch;
+            previousNanos = nanos;
+            return;
+        }
+
+        long interval = Math.max(MIN_INTERVAL_NANOS, nanos - previousNanos);
+        float deltaYaw = wrapDegrees(yaw - previousYaw);
+        float deltaPitch = pitch - previousPitch;
+        float distance = (float) Math.sqrt(deltaYaw * deltaYaw + deltaPitch * deltaPitch);
+        float velocity = distance * TimeUnit.SECONDS.toNanos(1) / interval;
+
+        int sampleFlags = 0;
+        float sampleJerk = 0f;
+        if (distance >= MOVING_DEGREES) {
+            sampleFlags |= FLAG_MOVING;
+            if (hasPreviousDelta) {
+                float dy = deltaYaw - previousDeltaYaw;
+                float dp = deltaPitch - previousDeltaPitch;
+                sampleJerk = (float) Math.sqrt(dy * dy + dp * dp);
+            }
+        }
+        if (distance >= SNAP_DEGREES && (deltaYaw == 0f || deltaPitch == 0f
+                || (deltaYaw == previousDeltaYaw && deltaPitch == previousDeltaPitch))) {
+            sampleFlags |= FLAG_SNAP;
+        }
+        if (velocity >= FLICK_DEGREES_PER_SECOND) {
+            sampleFlags |= FLAG_FLICK;
+        }
+        int sampleBucket = (int) Math.min(BUCKETS - 1, interval / BUCKET_NANOS);
+
+        if (size == WINDOW) {
+            evict(head);
+        } else {
+            size++;
+        }
+        add(head, sampleFlags, sampleJerk, sampleBucket);
+        head = (head + 1) & MASK;
+        total++;
+
+        previousYaw = yaw;
+        previousPitch = pitch;
+        previousNanos = nanos;
+        previousDeltaYaw = deltaYaw;
+        previousDeltaPitch = deltaPitch;
+        hasPreviousDelta = true;
+    }
+
+    private void add(int slot, int sampleFlags, float sampleJerk, int sampleBucket) {
+        flags[slot] = (byte) sampleFlags;
+        jerk[slot] = sampleJerk;
+        bucket[slot] = (byte) sampleBucket;
+        if ((sampleFlags & FLAG_MOVING) != 0) {
+            movingCount++;
+            jerkSum += sampleJerk;
+            jerkSumSquares += (double) sampleJerk * sampleJerk;
+        }
+        if ((sampleFlags & FLAG_SNAP) != 0) {
+            snapCount++;
+        }
+        if ((sampleFlags & FLAG_FLICK) != 0) {
+            flickCount++;
+        }
+        int count = bucketCounts[sampleBucket]++;
+        bucketCLogC += C_LOG_C[count + 1] - C_LOG_C[count];
+    }
+
+    private void evict(int slot) {
+        int oldFlags = flags[slot];
+        if ((oldFlags & FLAG_MOVING) != 0) {
+            movingCount--;
+            jerkSum -= jerk[slot];
+            jerkSumSquares -= (double) jerk[slot] * jerk[slot];
+        }
+        if ((oldFlags & FLAG_SNAP) != 0) {
+            snapCount--;
+        }
+        if ((oldFlags & FLAG_FLICK) != 0) {
+            flickCount--;
+        }
+        int count = bucketCounts[bucket[slot]]--;
+        bucketCLogC += C_LOG_C[count - 1] - C_LOG_C[count];
+    }
+
+    private static float wrapDegrees(float degrees) {
+        degrees %= 360f;
+        if (degrees >= 180f) {
+            degrees -= 360f;
+        } else if (degrees < -180f) {
+            degrees += 360f;
+        }
+        return degrees;
+    }
+
+    /** Samples currently in the window. */
+    public int getSampleCount() {
+        return size;
+    }
+
+    /** Samples seen since the session started. */
+    public long getTotalSamples() {
+        return total;
+    }
+
+    public double getSnapRatio() {
+        return size == 0 ? 0 : (double) snapCount / size;
+    }
+
+    public double getFlickRatio() {
+        return size == 0 ? 0 : (double) flickCount / size;
+    }
+
+    /** Standard deviation of the delta-to-delta change over moving samples, in degrees. */
+    public double getJitter() {
+        if (movingCount < 2) {
+            return 0;
+        }
+        double mean = jerkSum / movingCount;
+        return Math.sqrt(Math.max(0, jerkSumSquares / movingCount - mean * mean));
+    }
+
+    /** Entropy of the inter-packet interval histogram, in bits (0 to 5). */
+    public double getTimingEntropy() {
+        if (size == 0) {
+            return 0;
+        }
+        return Math.log(size) / Math.log(2) - bucketCLogC / size;
+    }
+
+    /**
+     * Bot likelihood in [-1, 1]: positive for flicks, scripted snaps and perfectly smooth
+     * motion; negative for natural jitter and irregular timing.
+     */
+    public double score() {
+        if (size == 0) {
+            return 0;
+        }
+        double score = 0;
+        // A stream made mostly of flicks or scripted snaps is enough on its own to fail
+        score += Math.min(1.0, getFlickRatio() * 2) * 0.9;
+        score += Math.min(1.0, getSnapRatio() * 2) * 0.9;
+
+        // Tick-locked timing is what every vanilla client sends, so only irregular timing counts
+        if (getTimingEntropy() > HIGH_ENTROPY_BITS) {
+            score -= 0.3;
+        }
+
+        // Smoothness only means something while the camera actually moves; random spinning has
+        // plenty of jitter too, so only a hand-sized wobble counts as human
+        if (movingCount >= size / 4) {
+            double jitter = getJitter();
+            if (jitter < SMOOTH_JITTER) {
+                score += 0.4;
+            } else if (jitter <= ERRATIC_JITTER) {
+                score -= 0.4;
+            }
+        }
+        return Math.max(-1.0, Math.min(1.0, score));
+    }
+}
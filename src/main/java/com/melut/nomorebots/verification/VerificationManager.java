@@ -1,6 +1,8 @@
 package com.melut.nomorebots.verification;
 
 import com.melut.nomorebots.NoMoreBotsPlugin;
+import com.melut.nomorebots.audit.AuditEvent;
+import com.melut.nomorebots.database.DatabaseManager;
 import com.melut.nomorebots.database.PlayerData;
 import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.server.RegisteredServer;
@@ -8,6 +10,7 @@ import net.kyori.adventure.text.Component;
 
 import java.sql.Timestamp;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class VerificationManager {
@@ -21,26 +24,43 @@ public class VerificationManager {
     public void startVerification(Player player) {
         // Create and start hybrid verification session
         VerificationSession session = new VerificationSession(player, plugin);
-        sessions.put(player.getUniqueId(), session);
-        plugin.getLogger().info("Started hybrid verification session for " + player.getUsername());
+        VerificationSession previous = sessions.put(player.getUniqueId(), session);
+        if (previous != null) {
+            previous.cancelTimers();
+        }
+        plugin.getAuditLog().record(AuditEvent.SESSION_STARTED, player.getUniqueId(), player.getUsername(),
+                player.getRemoteAddress().getAddress(), 0);
+        if (plugin.getLogger().isDebugEnabled()) {
+            plugin.getLogger().debug("Started hybrid verification session for " + player.getUsername());
+        }
     }
     
     public VerificationSession getSession(UUID uuid) {
         return sessions.get(uuid);
     }
     
+    public int getSessionCount() {
+        return sessions.size();
+    }
+    
     public void removeSession(UUID uuid) {
-        sessions.remove(uuid);
+        VerificationSession session = sessions.remove(uuid);
+        if (session != null) {
+            session.cancelTimers();
+        }
     }
     
     public void handleSuccess(Player player) {
         removeSession(player.getUniqueId());
+        plugin.getPluginMetrics().verified.inc();
+        plugin.getAuditLog().record(AuditEvent.VERIFIED, player.getUniqueId(), player.getUsername(),
+                player.getRemoteAddress().getAddress(), 0);
         
         // Get player IP
         String playerIP = player.getRemoteAddress().getAddress().getHostAddress();
         
         // Update database with cooldown
-        plugin.getDatabaseManager().getPlayerData(player.getUniqueId()).thenAccept(optData -> {
+        loadOrCreatePlayerData(player).thenAccept(optData -> {
             if (optData.isPresent()) {
                 PlayerData data = optData.get();
                 data.setVerified(true);
@@ -58,7 +78,9 @@ public class VerificationManager {
                 data.setUsername(player.getUsername()); // Update username in case it changed
                 
                 plugin.getDatabaseManager().updatePlayerData(data);
-                plugin.getLogger().info("Player " + player.getUsername() + " (" + playerIP + ") verified successfully. Cooldown until: " + new Timestamp(cooldownMillis));
+                if (plugin.getLogger().isDebugEnabled()) {
+                    plugin.getLogger().debug("Player " + player.getUsername() + " (" + playerIP + ") verified successfully. Cooldown until: " + new Timestamp(cooldownMillis));
+                }
             }
         });
 
@@ -80,19 +102,28 @@ public class VerificationManager {
             handleTimeout(player);
         } else {
             // Message for wrong attempt - handled in VerificationSession
-            plugin.getLogger().info("Player " + player.getUsername() + " failed attempt, " + attemptsLeft + " attempts remaining");
+            if (plugin.getLogger().isDebugEnabled()) {
+                plugin.getLogger().debug("Player " + player.getUsername() + " failed attempt, " + attemptsLeft + " attempts remaining");
+            }
         }
     }
     
     public void handleTimeout(Player player) {
         removeSession(player.getUniqueId());
+        plugin.getPluginMetrics().timedOut.inc();
+        plugin.getAuditLog().record(AuditEvent.TIMED_OUT, player.getUniqueId(), player.getUsername(),
+                player.getRemoteAddress().getAddress(), 0);
+        
+        // Deny a reconnect at pre-login right away, the row below is written asynchronously
+        long timeoutMillis = System.currentTimeMillis() + (plugin.getConfigManager().getTimeoutDuration() * 1000L);
+        plugin.getDatabaseManager().getDenyIndex().deny(player.getUsername(),
+                player.getRemoteAddress().getAddress().getHostAddress(), timeoutMillis);
         
         // Update DB
-        plugin.getDatabaseManager().getPlayerData(player.getUniqueId()).thenAccept(optData -> {
+        loadOrCreatePlayerData(player).thenAccept(optData -> {
             if (optData.isPresent()) {
                 PlayerData data = optData.get();
                 // Set timeout for configured duration
-                long timeoutMillis = System.currentTimeMillis() + (plugin.getConfigManager().getTimeoutDuration() * 1000L);
                 data.setTimeoutUntil(new Timestamp(timeoutMillis));
                 data.incrementFailedAttempts();
                 plugin.getDatabaseManager().updatePlayerData(data);
@@ -106,4 +137,13 @@ public class VerificationManager {
         
         player.disconnect(plugin.getLanguageManager().getMessage("verification.timeout", placeholders));
     }
+
+    // Logins during attack mode do not create a row, so the outcome creates it when missing
+    private CompletableFuture<Optional<PlayerData>> loadOrCreatePlayerData(Player player) {
+        DatabaseManager database = plugin.getDatabaseManager();
+        UUID uuid = player.getUniqueId();
+        return database.getPlayerData(uuid).thenCompose(optData -> optData.isPresent()
+                ? CompletableFuture.completedFuture(optData)
+                : database.createPlayerData(uuid, player.getUsername()).thenCompose(ignored -> database.getPlayerData(uuid)));
+    }
 }
\ No newline at end of file
@@ -1,16 +1,22 @@
 package com.melut.nomorebots.verification;
 
 import com.melut.nomorebots.NoMoreBotsPlugin;
+import com.melut.nomorebots.audit.AuditEvent;
+import com.melut.nomorebots.config.ConfigSnapshot;
+import com.melut.nomorebots.timer.TimingWheel;
 import com.velocitypowered.api.proxy.Player;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class VerificationSession {
     private final Player player;
     private final NoMoreBotsPlugin plugin;
+    // Settings the session started with, a reload only affects new sessions
+    private final ConfigSnapshot config;
     private String targetCode;
     private int attempts = 0;
     private int maxAttempts;
@@ -21,16 +27,22 @@ public class VerificationSession {
     private boolean chatCompleted = false;
     private boolean movementCompleted = false;
     
-    // Multi-direction movement verification
-    private List<String> movementDirections;
+    // Multi-direction movement verification - cursor into the shared compiled challenge
+    private final MovementChallenge movementChallenge;
     private int currentDirectionIndex = 0;
-    private long currentDirectionStartTime = 0;
-    private String currentDirection = "";
-    private int currentDirectionDuration = 0;
+    private long currentDirectionStartNanos = 0;
+    private MovementChallenge.Step currentStep;
+    
+    // Rotation stream scoring, null when behavior analysis is disabled
+    private final RotationAnalyzer rotationAnalyzer;
+    private boolean behaviorHuman = false;
+    private boolean behaviorDecided = false;
     
     // Timeout handling
     private long lastActionTime = System.currentTimeMillis();
     private boolean timeoutHandled = false;
+    private volatile TimingWheel.Timer timeoutTimer;
+    private volatile boolean closed = false;
     
     public enum VerificationStage {
         CHAT,      // Player needs to type the code in chat
@@ -41,10 +53,12 @@ public class VerificationSession {
     public VerificationSession(Player player, NoMoreBotsPlugin plugin) {
         this.player = player;
         this.plugin = plugin;
-        this.maxAttempts = plugin.getConfigManager().getMaxAttempts();
+        this.config = plugin.getConfigManager().getSnapshot();
+        this.maxAttempts = config.maxAttempts;
         
-        // Load movement directions from config
-        this.movementDirections = plugin.getConfigManager().getMovementDirections();
+        // Movement directions are compiled once per config load
+        this.movementChallenge = config.movementChallenge;
+        this.rotationAnalyzer = config.behaviorAnalysisEnabled ? new RotationAnalyzer() : null;
         
         // Generate random code for chat verification
         generateTargetCode();
@@ -58,15 +72,17 @@ public class VerificationSession {
 
     private void generateTargetCode() {
         // Generate random code using config settings
-        String characters = plugin.getConfigManager().getCodeCharacters();
-        int length = plugin.getConfigManager().getCodeLength();
+        String characters = config.codeCharacters;
+        int length = config.codeLength;
         
         StringBuilder code = new StringBuilder();
         for (int i = 0; i < length; i++) {
             code.append(characters.charAt(random.nextInt(characters.length())));
         }
         this.targetCode = code.toString();
-        plugin.getLogger().info("Generated verification code for " + player.getUsername() + ": " + targetCode);
+        if (plugin.getLogger().isDebugEnabled()) {
+            plugin.getLogger().debug("Generated verification code for " + player.getUsername() + ": " + targetCode);
+        }
     }
     
     private void startChatVerification() {
@@ -81,7 +97,9 @@ public class VerificationSession {
         player.sendMessage(plugin.getLanguageManager().getMessage("verification.chat-instruction", placeholders));
         player.sendMessage(plugin.getLanguageManager().getMessage("verification.chat-hint"));
         
-        plugin.getLogger().info("Started chat verification for " + player.getUsername() + " with code: " + targetCode);
+        if (plugin.getLogger().isDebugEnabled()) {
+            plugin.getLogger().debug("Started chat verification for " + player.getUsername() + " with code: " + targetCode);
+        }
     }
     
     private void startMovementVerification() {
@@ -93,29 +111,29 @@ public class VerificationSession {
         // Start first direction
         startNextDirection();
         
-        plugin.getLogger().info("Started multi-direction movement verification for " + player.getUsername());
+        if (plugin.getLogger().isDebugEnabled()) {
+            plugin.getLogger().debug("Started multi-direction movement verification for " + player.getUsername());
+        }
     }
     
     private void startNextDirection() {
-        if (currentDirectionIndex >= movementDirections.size()) {
+        if (currentDirectionIndex >= movementChallenge.size()) {
             // All directions completed
             completeMovementVerification();
             return;
         }
         
-        String directionData = movementDirections.get(currentDirectionIndex);
-        String[] parts = directionData.split(":");
-        currentDirection = parts[0];
-        currentDirectionDuration = Integer.parseInt(parts[1]);
-        currentDirectionStartTime = System.currentTimeMillis();
+        currentStep = movementChallenge.getStep(currentDirectionIndex);
+        currentDirectionStartNanos = System.nanoTime();
         lastActionTime = System.currentTimeMillis();
         
         // Send direction-specific message
-        String messageKey = "verification.movement-" + currentDirection;
-        player.sendMessage(plugin.getLanguageManager().getMessage(messageKey));
+        player.sendMessage(plugin.getLanguageManager().getMessage(currentStep.getMessageKey()));
         
-        plugin.getLogger().info("Direction " + (currentDirectionIndex + 1) + "/" + movementDirections.size() +
-                              ": " + currentDirection + " for " + currentDirectionDuration + "s");
+        if (plugin.getLogger().isDebugEnabled()) {
+            plugin.getLogger().debug("Direction " + (currentDirectionIndex + 1) + "/" + movementChallenge.size() +
+                                  ": " + currentStep.getName() + " for " + currentStep.getHoldSeconds() + "s");
+        }
     }
     
     private void completeMovementVerification() {
@@ -137,35 +155,56 @@ public class VerificationSession {
     }
     
     private void startTimeoutChecker() {
-        plugin.getServer().getScheduler()
-            .buildTask(plugin, () -> {
-                if (currentStage != VerificationStage.COMPLETED && !timeoutHandled) {
-                    long now = System.currentTimeMillis();
-                    int timeoutSeconds = plugin.getConfigManager().getResponseTimeout();
-                    
-                    if (now - lastActionTime > timeoutSeconds * 1000L) {
-                        if (plugin.getConfigManager().isKickOnTimeout()) {
-                            timeoutHandled = true; // Prevent multiple timeout handling
-                            plugin.getLogger().info("Player " + player.getUsername() + " timed out during verification");
-                            plugin.getVerificationManager().handleTimeout(player);
-                        }
-                    }
-                }
-            })
-            .repeat(java.time.Duration.ofSeconds(1))
-            .schedule();
+        scheduleTimeoutCheck(config.responseTimeout * 1000L);
+    }
+
+    private void scheduleTimeoutCheck(long delayMillis) {
+        timeoutTimer = plugin.getTimingWheel().schedule(this::checkTimeout, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Fires at the response deadline; activity since then pushes the deadline out instead of polling
+    private void checkTimeout() {
+        if (currentStage == VerificationStage.COMPLETED || timeoutHandled) {
+            return;
+        }
+
+        long idle = System.currentTimeMillis() - lastActionTime;
+        long timeoutMillis = config.responseTimeout * 1000L;
+        if (idle <= timeoutMillis) {
+            scheduleTimeoutCheck(timeoutMillis - idle + 1);
+            return;
+        }
+
+        if (config.kickOnTimeout) {
+            timeoutHandled = true; // Prevent multiple timeout handling
+            if (plugin.getLogger().isDebugEnabled()) {
+                plugin.getLogger().debug("Player " + player.getUsername() + " timed out during verification");
+            }
+            plugin.getVerificationManager().handleTimeout(player);
+        }
+    }
+
+    /** Cancels the response deadline, called when the session is removed. */
+    public void cancelTimers() {
+        closed = true;
+        TimingWheel.Timer timer = timeoutTimer;
+        if (timer != null) {
+            timer.cancel();
+        }
     }
     
     public void handleChatMessage(String message) {
         if (currentStage != VerificationStage.CHAT) return;
         
-        plugin.getLogger().info("Chat verification attempt by " + player.getUsername() + ": " + message);
+        if (plugin.getLogger().isDebugEnabled()) {
+            plugin.getLogger().debug("Chat verification attempt by " + player.getUsername() + ": " + message);
+        }
         
         String userInput = message.trim();
         String expectedCode = targetCode;
         
         // Handle case sensitivity based on config
-        if (!plugin.getConfigManager().isCodeCaseSensitive()) {
+        if (!config.codeCaseSensitive) {
             userInput = userInput.toUpperCase();
             expectedCode = expectedCode.toUpperCase();
         }
@@ -173,6 +212,9 @@ public class VerificationSession {
         if (userInput.equals(expectedCode)) {
             // Chat verification successful
             chatCompleted = true;
+            plugin.getPluginMetrics().chatPassed.inc();
+            plugin.getAuditLog().record(AuditEvent.CHAT_PASSED, player.getUniqueId(), player.getUsername(),
+                    player.getRemoteAddress().getAddress(), attempts);
             player.sendMessage(plugin.getLanguageManager().getMessage("verification.chat-success"));
             
             // Move to movement verification
@@ -180,6 +222,9 @@ public class VerificationSession {
         } else {
             // Wrong code
             attempts++;
+            plugin.getPluginMetrics().chatFailed.inc();
+            plugin.getAuditLog().record(AuditEvent.CHAT_FAILED, player.getUniqueId(), player.getUsername(),
+                    player.getRemoteAddress().getAddress(), attempts);
             int remaining = maxAttempts - attempts;
             
             if (remaining > 0) {
@@ -199,55 +244,71 @@ public class VerificationSession {
     
     public void handleMovement(double x, double y, double z, float yaw, float pitch) {
         if (currentStage != VerificationStage.MOVEMENT) return;
-        if (currentDirectionIndex >= movementDirections.size()) return;
+        MovementChallenge.Step step = currentStep;
+        if (step == null || currentDirectionIndex >= movementChallenge.size()) return;
         
+        long now = System.nanoTime();
         lastActionTime = System.currentTimeMillis();
         
-        boolean isLookingCorrectDirection = false;
-        double tolerance = plugin.getConfigManager().getMovementTolerance();
-        
-        switch (currentDirection.toLowerCase()) {
-            case "up":
-                double upPitchMin = plugin.getConfigManager().getDirectionAngle("up", "pitch-min");
-                double upPitchMax = plugin.getConfigManager().getDirectionAngle("up", "pitch-max");
-                isLookingCorrectDirection = pitch >= upPitchMin && pitch <= upPitchMax;
-                break;
-                
-            case "down":
-                double downPitchMin = plugin.getConfigManager().getDirectionAngle("down", "pitch-min");
-                double downPitchMax = plugin.getConfigManager().getDirectionAngle("down", "pitch-max");
-                isLookingCorrectDirection = pitch >= downPitchMin && pitch <= downPitchMax;
-                break;
-                
-            case "left":
-                double leftYawMin = plugin.getConfigManager().getDirectionAngle("left", "yaw-min");
-                double leftYawMax = plugin.getConfigManager().getDirectionAngle("left", "yaw-max");
-                // Normalize yaw to 0-360
-                float normalizedYaw = ((yaw % 360) + 360) % 360;
-                isLookingCorrectDirection = normalizedYaw >= leftYawMin && normalizedYaw <= leftYawMax;
-                break;
-                
-            case "right":
-                double rightYawMin = plugin.getConfigManager().getDirectionAngle("right", "yaw-min");
-                double rightYawMax = plugin.getConfigManager().getDirectionAngle("right", "yaw-max");
-                // Handle negative ranges for right
-                isLookingCorrectDirection = (yaw >= rightYawMin && yaw <= rightYawMax);
-                break;
-        }
-        
-        if (isLookingCorrectDirection) {
-            long holdTime = System.currentTimeMillis() - currentDirectionStartTime;
-            long requiredHoldTime = currentDirectionDuration * 1000L;
-            
-            if (holdTime >= requiredHoldTime) {
+        if (step.matches(yaw, pitch)) {
+            if (now - currentDirectionStartNanos >= step.getHoldNanos()) {
                 // Direction completed, move to next
+                plugin.getPluginMetrics().movementStepPassed.inc();
+                plugin.getAuditLog().record(AuditEvent.MOVEMENT_STEP, player.getUniqueId(), player.getUsername(),
+                        player.getRemoteAddress().getAddress(), currentDirectionIndex);
                 currentDirectionIndex++;
-                startNextDirection();
+                if (!fastTrack()) {
+                    startNextDirection();
+                }
             }
         } else {
             // Reset timer if not looking in the correct direction
-            currentDirectionStartTime = System.currentTimeMillis();
+            currentDirectionStartNanos = now;
+        }
+    }
+    
+    /**
+     * Feeds every rotation packet to the behavior analyzer, including the ones the limbo filter
+     * coalesces. Once enough samples are in, a clearly human score lets the player skip the
+     * directions after the first. A bot-like score only takes that shortcut away: the player
+     * still gets the whole challenge, and is never timed out or denied on the score alone.
+     */
+    public void observeRotation(float yaw, float pitch, long nanos) {
+        if (rotationAnalyzer == null || behaviorDecided || currentStage == VerificationStage.COMPLETED) return;
+        
+        rotationAnalyzer.record(yaw, pitch, nanos);
+        if (rotationAnalyzer.getSampleCount() < config.behaviorMinSamples) return;
+        
+        double score = rotationAnalyzer.score();
+        if (score >= config.behaviorFailScore) {
+            behaviorDecided = true;
+            plugin.getPluginMetrics().behaviorFailed.inc();
+            plugin.getAuditLog().record(AuditEvent.BEHAVIOR_FAILED, player.getUniqueId(), player.getUsername(),
+                    player.getRemoteAddress().getAddress(), (int) Math.round(score * 100));
+            if (plugin.getLogger().isDebugEnabled()) {
+                plugin.getLogger().debug("Rotation behavior of " + player.getUsername() + " scored " + score + ", requiring the full challenge");
+            }
+            return;
+        }
+        behaviorHuman = score <= config.behaviorPassScore;
+        fastTrack();
+    }
+    
+    // Completes the movement stage early once one direction passed and the rotation stream looks human
+    private boolean fastTrack() {
+        if (!behaviorHuman || behaviorDecided || currentStage != VerificationStage.MOVEMENT
+                || currentDirectionIndex == 0 || currentDirectionIndex >= movementChallenge.size()) {
+            return false;
+        }
+        behaviorDecided = true;
+        plugin.getPluginMetrics().behaviorFastTracked.inc();
+        plugin.getAuditLog().record(AuditEvent.BEHAVIOR_FAST_TRACK, player.getUniqueId(), player.getUsername(),
+                player.getRemoteAddress().getAddress(), currentDirectionIndex);
+        if (plugin.getLogger().isDebugEnabled()) {
+            plugin.getLogger().debug("Rotation behavior of " + player.getUsername() + " looks human, skipping remaining directions");
         }
+        completeMovementVerification();
+        return true;
     }
     
     // Getters
@@ -255,4 +316,6 @@ public class VerificationSession {
     public boolean isMovementCompleted() { return movementCompleted; }
     public VerificationStage getCurrentStage() { return currentStage; }
     public String getTargetCode() { return targetCode; }
+    /** True once the session was removed from the manager; holders of a cached reference should drop it. */
+    public boolean isClosed() { return closed; }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.melut.nomorebots.bench;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Config overrides shared by the benchmarks. */
+final class BenchmarkConfig {
+    private BenchmarkConfig() {
+    }
+
+    /**
+     * Steady-state settings: nobody is whitelisted, attempt and session limits never trip, and
+     * movement steps are held long enough that a session stays in the movement stage for the
+     * whole measurement.
+     */
+    static Map<String, Object> steadyState() {
+        Map<String, Object> overrides = new LinkedHashMap<>();
+        overrides.put("bypass.ip-whitelist", Collections.emptyList());
+        overrides.put("verification.attempts.max-attempts", Integer.MAX_VALUE);
+        overrides.put("verification.attempts.max-sessions", Integer.MAX_VALUE);
+        overrides.put("verification.movement.directions", Arrays.asList("up:86400", "left:86400"));
+        overrides.put("verification.movement.response-timeout", 86400);
+        overrides.put("limbo.max-players", 100_000);
+        overrides.put("limbo.players-per-shard", 1_000);
+        return overrides;
+    }
+}
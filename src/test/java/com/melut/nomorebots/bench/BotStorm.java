@@ -0,0 +1,531 @@
+package com.melut.nomorebots.bench;
+
+import com.melut.nomorebots.NoMoreBotsPlugin;
+import com.melut.nomorebots.events.PlayerConnectionHandler;
+import com.melut.nomorebots.monitoring.PluginMetrics;
+import com.melut.nomorebots.verification.MovementChallenge;
+import com.melut.nomorebots.verification.VerificationSession;
+import com.velocitypowered.api.event.Continuation;
+import com.velocitypowered.api.event.EventTask;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
+import com.velocitypowered.api.event.connection.LoginEvent;
+import com.velocitypowered.api.event.player.ServerPreConnectEvent;
+import com.velocitypowered.api.proxy.server.RegisteredServer;
+import net.elytrium.limboapi.api.LimboSessionHandler;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless join storm against the real plugin: thousands of synthetic clients log in through
+ * {@link PlayerConnectionHandler}, land in the fake limbo and then either solve the challenge like
+ * a person or behave like a bot. No network and no Minecraft client are involved.
+ *
+ * <p>Bots alternate between four behaviours: spamming wrong codes, spinning the camera at random
+ * without ever typing, flooding position packets far above the vanilla rate, and idling until the
+ * response timeout. They share a small number of /24
+ * subnets, as they would coming from a rented block, while humans each arrive from their own.</p>
+ *
+ * <p>{@link BotStormIT} runs a small storm under {@code mvn verify}; larger ones are started by
+ * hand from the benchmarks jar:</p>
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.melut.nomorebots.bench.BotStorm \
+ *     --bots 20000 --humans 500 --rate 2000
+ * </pre>
+ */
+public final class BotStorm {
+    /** Client packets are driven at the vanilla tick rate. */
+    private static final long TICK_MILLIS = 50;
+    private static final long CHAT_SPAM_MILLIS = 500;
+    private static final int FLOOD_PACKETS_PER_TICK = 10;
+
+    private final Options options;
+    private final FakeProxy proxy;
+    private final NoMoreBotsPlugin plugin;
+    private final PlayerConnectionHandler handler;
+    private final RegisteredServer lobby;
+    private final ScheduledExecutorService clientExecutor;
+    private final List<List<Client>> partitions = new ArrayList<>();
+    private final CountDownLatch finished;
+
+    private final Recorder loginDecision;
+    private final Recorder humanOutcome;
+    private final Recorder botOutcome;
+    private final AtomicInteger loginsDecided = new AtomicInteger();
+    private final AtomicInteger humansVerified = new AtomicInteger();
+    private volatile long lastLoginDecidedNanos;
+
+    private BotStorm(Options options) throws Exception {
+        this.options = options;
+        this.proxy = FakeProxy.start(options.overrides(), options.threads);
+        this.plugin = proxy.getPlugin();
+        this.handler = proxy.getListener(PlayerConnectionHandler.class);
+        this.lobby = FakeProxy.proxy(RegisteredServer.class, (method, args) -> FakeProxy.defaultValue(method.getReturnType()));
+        this.clientExecutor = Executors.newScheduledThreadPool(options.threads, runnable -> {
+            Thread thread = new Thread(runnable, "BotStorm-Client");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int total = options.bots + options.humans;
+        this.finished = new CountDownLatch(total);
+        this.loginDecision = new Recorder(total);
+        this.humanOutcome = new Recorder(options.humans);
+        this.botOutcome = new Recorder(options.bots);
+    }
+
+    public static void main(String[] args) throws Exception {
+        run(Options.parse(args));
+    }
+
+    /** Runs one storm, prints the report and returns the figures the integration test checks. */
+    static Result run(Options options) throws Exception {
+        BotStorm storm = new BotStorm(options);
+        try {
+            return storm.run();
+        } finally {
+            storm.close();
+        }
+    }
+
+    private Result run() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long heapBefore = usedHeapAfterGc(memory);
+
+        // Interleave bots and humans so both are present for the whole storm
+        List<Client> clients = new ArrayList<>(options.bots + options.humans);
+        int botIndex = 0;
+        int humanIndex = 0;
+        long start = System.nanoTime();
+        long spacing = options.rate > 0 ? TimeUnit.SECONDS.toNanos(1) / options.rate : 0;
+        for (int i = 0; i < options.bots + options.humans; i++) {
+            boolean human = humanIndex < options.humans
+                    && (botIndex >= options.bots || (long) humanIndex * options.bots <= (long) botIndex * options.humans);
+            Client client = human
+                    ? new Client(Kind.HUMAN, "human" + humanIndex, humanAddress(humanIndex++))
+                    : new Client(Kind.values()[botIndex % 4 + 1], "bot" + botIndex, botAddress(botIndex++));
+            client.joinAtNanos = start + i * spacing;
+            clients.add(client);
+        }
+        for (int i = 0; i < options.threads; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (int i = 0; i < clients.size(); i++) {
+            partitions.get(i % options.threads).add(clients.get(i));
+        }
+        for (List<Client> partition : partitions) {
+            clientExecutor.scheduleAtFixedRate(() -> tick(partition), 0, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        boolean completed = finished.await(options.timeoutSeconds, TimeUnit.SECONDS);
+        long elapsed = System.nanoTime() - start;
+        clientExecutor.shutdownNow();
+        clientExecutor.awaitTermination(5, TimeUnit.SECONDS);
+
+        // Give one-shot tasks (disconnect delays, limbo fallbacks) time to fire before counting leftovers
+        Thread.sleep(options.settleMillis);
+        long heapAfter = usedHeapAfterGc(memory);
+        return report(clients, completed, elapsed, heapBefore, heapAfter);
+    }
+
+    private void tick(List<Client> partition) {
+        long now = System.nanoTime();
+        for (Client client : partition) {
+            try {
+                client.tick(now);
+            } catch (RuntimeException e) {
+                System.err.println("Client " + client.player.getUsername() + " failed: " + e);
+                client.finish(now);
+            }
+        }
+    }
+
+    private enum Kind {
+        HUMAN, CHAT_SPAMMER, SPINNER, FLOODER, IDLE
+    }
+
+    private enum State {
+        WAITING, LOGGING_IN, CONNECTING, IN_LIMBO, DISCONNECTING, DONE
+    }
+
+    /** One synthetic connection; ticked only from its partition's thread. */
+    private final class Client {
+        final Kind kind;
+        final FakePlayer player;
+        long joinAtNanos;
+        volatile State state = State.WAITING;
+        long lastChatNanos;
+        long movementStartNanos;
+        boolean codeSent;
+        boolean verified;
+
+        Client(Kind kind, String name, InetAddress address) {
+            this.kind = kind;
+            this.player = new FakePlayer(name, address);
+            // The plugin kicks from its own threads; cleanup happens on the next tick
+            player.onDisconnect(() -> state = State.DISCONNECTING);
+        }
+
+        void tick(long now) {
+            switch (state) {
+                case WAITING:
+                    if (now >= joinAtNanos) {
+                        login(now);
+                    }
+                    break;
+                case IN_LIMBO:
+                    play(now);
+                    break;
+                case DISCONNECTING:
+                    finish(now);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        void login(long now) {
+            state = State.LOGGING_IN;
+            proxy.addPlayer(player.player());
+            LoginEvent event = new LoginEvent(player.player());
+            fire(handler.onLogin(event), () -> {
+                if (!event.getResult().isAllowed()) {
+                    decided(now);
+                    player.player().disconnect(event.getResult().getReasonComponent().orElse(null));
+                    return;
+                }
+                state = State.CONNECTING;
+                ServerPreConnectEvent connect = new ServerPreConnectEvent(player.player(), lobby);
+                fire(handler.onServerPreConnect(connect), () -> {
+                    decided(now);
+                    if (connect.getResult().isAllowed()) {
+                        // Cooldown or bypass: straight through, leave again
+                        player.player().disconnect(null);
+                    } else if (state == State.CONNECTING) {
+                        state = State.IN_LIMBO;
+                    }
+                });
+            });
+        }
+
+        void play(long now) {
+            VerificationSession session = plugin.getVerificationManager().getSession(player.getUniqueId());
+            LimboSessionHandler limbo = proxy.getLimboSession(player.player());
+            if (session == null || limbo == null) {
+                // Spawn and session start are delayed by the plugin
+                return;
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            switch (kind) {
+                case HUMAN:
+                    playHuman(now, session, limbo, random);
+                    break;
+                case CHAT_SPAMMER:
+                    if (now - lastChatNanos >= TimeUnit.MILLISECONDS.toNanos(CHAT_SPAM_MILLIS)) {
+                        lastChatNanos = now;
+                        limbo.onChat(Integer.toHexString(random.nextInt()));
+                    }
+                    break;
+                case SPINNER:
+                    limbo.onMove(0.5, 64.0, 0.5, random.nextFloat() * 360f - 180f, random.nextFloat() * 180f - 90f);
+                    break;
+                case FLOODER:
+                    // Walking off spawn every packet, as a movement-spam client would
+                    for (int i = 0; i < FLOOD_PACKETS_PER_TICK; i++) {
+                        limbo.onMove(0.5 + random.nextDouble(), 64.0, 0.5 + random.nextDouble(), 0f, 0f);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        void playHuman(long now, VerificationSession session, LimboSessionHandler limbo, ThreadLocalRandom random) {
+            if (session.getCurrentStage() == VerificationSession.VerificationStage.CHAT) {
+                // Reading the code and typing it takes a moment
+                if (!codeSent && now - joinAtNanos >= TimeUnit.MILLISECONDS.toNanos(options.humanTypingMillis)) {
+                    codeSent = true;
+                    limbo.onChat(session.getTargetCode());
+                }
+                return;
+            }
+            if (session.getCurrentStage() != VerificationSession.VerificationStage.MOVEMENT) {
+                return;
+            }
+            if (movementStartNanos == 0) {
+                movementStartNanos = now;
+            }
+            // Hold each step a little longer than required, then turn to the next one
+            MovementChallenge challenge = plugin.getConfigManager().getSnapshot().movementChallenge;
+            long elapsed = now - movementStartNanos;
+            int step = 0;
+            while (step < challenge.size() - 1
+                    && elapsed >= challenge.getStep(step).getHoldNanos() + TimeUnit.MILLISECONDS.toNanos(300)) {
+                elapsed -= challenge.getStep(step).getHoldNanos() + TimeUnit.MILLISECONDS.toNanos(300);
+                step++;
+            }
+            float jitter = random.nextFloat() * 10f - 5f;
+            switch (challenge.getStep(step).getName()) {
+                case "up":
+                    limbo.onMove(0.5, 64.0, 0.5, jitter, -60f + jitter);
+                    break;
+                case "down":
+                    limbo.onMove(0.5, 64.0, 0.5, jitter, 60f + jitter);
+                    break;
+                case "left":
+                    limbo.onMove(0.5, 64.0, 0.5, 180f + jitter, jitter);
+                    break;
+                default:
+                    limbo.onMove(0.5, 64.0, 0.5, jitter, jitter);
+                    break;
+            }
+            if (!verified && session.getCurrentStage() == VerificationSession.VerificationStage.COMPLETED) {
+                verified = true;
+                humansVerified.incrementAndGet();
+            }
+        }
+
+        void decided(long loginStart) {
+            long now = System.nanoTime();
+            loginDecision.record(now - loginStart);
+            loginsDecided.incrementAndGet();
+            lastLoginDecidedNanos = now;
+        }
+
+        void finish(long now) {
+            if (state == State.DONE) {
+                return;
+            }
+            state = State.DONE;
+            proxy.removePlayer(player.player());
+            handler.onDisconnect(new DisconnectEvent(player.player(), DisconnectEvent.LoginStatus.SUCCESSFUL_LOGIN));
+            (kind == Kind.HUMAN ? humanOutcome : botOutcome).record(now - joinAtNanos);
+            finished.countDown();
+        }
+    }
+
+    // Runs an event task the way Velocity's event manager would, then continues
+    private static void fire(EventTask task, Runnable next) {
+        if (task == null) {
+            next.run();
+            return;
+        }
+        task.execute(new Continuation() {
+            @Override
+            public void resume() {
+                next.run();
+            }
+
+            @Override
+            public void resumeWithException(Throwable exception) {
+                System.err.println("Event task failed: " + exception);
+                next.run();
+            }
+        });
+    }
+
+    private Result report(List<Client> clients, boolean completed, long elapsedNanos, long heapBefore, long heapAfter) {
+        PluginMetrics metrics = plugin.getPluginMetrics();
+        long loginWindow = Math.max(1, lastLoginDecidedNanos - clients.get(0).joinAtNanos);
+        long unfinished = clients.stream().filter(client -> client.state != State.DONE).count();
+
+        System.out.println();
+        System.out.println("=== Bot storm: " + options.bots + " bots, " + options.humans + " humans, "
+                + (options.rate > 0 ? options.rate + " joins/s" : "unthrottled") + " ===");
+        System.out.printf("Elapsed:              %.1f s%s%n", elapsedNanos / 1e9, completed ? "" : " (timed out)");
+        System.out.printf("Login throughput:     %.0f decisions/s (%d decided)%n",
+                loginsDecided.get() / (loginWindow / 1e9), loginsDecided.get());
+        System.out.println("Time to decision:     " + loginDecision.summary());
+        System.out.println("Human time to leave:  " + humanOutcome.summary());
+        System.out.println("Bot time to leave:    " + botOutcome.summary());
+        System.out.println("Humans verified:      " + humansVerified.get() + "/" + options.humans);
+        System.out.println("Unfinished clients:   " + unfinished);
+        System.out.println("Join decisions:       rate-limited=" + metrics.joinRateLimited.get()
+                + " timed-out=" + metrics.joinTimedOut.get() + " cooldown=" + metrics.joinCooldown.get()
+                + " verify=" + metrics.joinVerify.get() + " session-limit=" + metrics.joinSessionLimit.get()
+                + " error=" + metrics.joinError.get());
+        System.out.println("Limbo:                admitted=" + metrics.limboAdmitted.get()
+                + " rejected=" + metrics.limboRejected.get()
+                + " occupancy=" + plugin.getLimboManager().getTotalOccupancy());
+        System.out.println("Limbo packets:        processed=" + metrics.limboPacketsProcessed.get()
+                + " coalesced=" + metrics.limboPacketsCoalesced.get() + " dropped=" + metrics.limboPacketsDropped.get()
+                + " flood-kicks=" + metrics.limboFloodKicks.get());
+        System.out.println("Verification:         chat-passed=" + metrics.chatPassed.get()
+                + " chat-failed=" + metrics.chatFailed.get() + " verified=" + metrics.verified.get()
+                + " timed-out=" + metrics.timedOut.get() + " behavior-failed=" + metrics.behaviorFailed.get()
+                + " fast-tracked=" + metrics.behaviorFastTracked.get());
+        System.out.println("Attack mode:          " + (plugin.getAttackMode().isActive() ? "active" : "off")
+                + " activations=" + plugin.getAttackMode().getActivationCount());
+        System.out.println("Database:             row-creates=" + plugin.getDatabaseManager().getCreateLatency().getCount()
+                + " write-batches=" + plugin.getDatabaseManager().getWriteLatency().getCount());
+        System.out.printf("Heap growth:          %+.1f MB (%.1f -> %.1f MB after GC)%n",
+                (heapAfter - heapBefore) / 1048576.0, heapBefore / 1048576.0, heapAfter / 1048576.0);
+        System.out.println("Leftover tasks:       scheduler=" + proxy.getLiveTaskCount()
+                + " (of " + proxy.getScheduledTaskCount() + " scheduled) timing-wheel="
+                + plugin.getTimingWheel().getActiveTimers()
+                + " sessions=" + plugin.getVerificationManager().getSessionCount());
+        System.out.println("Teleports sent:       " + proxy.getTeleportCount());
+
+        return new Result(completed, humansVerified.get(), metrics.verified.get(), unfinished,
+                plugin.getLimboManager().getTotalOccupancy(), plugin.getVerificationManager().getSessionCount());
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    // Bots are packed into a few /24s starting at 10.200.0.0
+    private InetAddress botAddress(int index) {
+        int subnet = index % options.botSubnets;
+        int host = index / options.botSubnets % 254 + 1;
+        return address(10, 200 + (subnet >>> 8), subnet & 0xFF, host);
+    }
+
+    // Humans each get their own /24 under 172.16.0.0/12, wrapping after 4096
+    private static InetAddress humanAddress(int index) {
+        return address(172, 16 + (index >>> 8 & 0x0F), index & 0xFF, 1 + (index >>> 12) % 254);
+    }
+
+    private static InetAddress address(int a, int b, int c, int d) {
+        try {
+            return InetAddress.getByAddress(new byte[]{(byte) a, (byte) b, (byte) c, (byte) d});
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void close() {
+        clientExecutor.shutdownNow();
+        proxy.close();
+    }
+
+    /** Fixed-size latency sample, sorted once for the report. */
+    private static final class Recorder {
+        private final long[] samples;
+        private final AtomicInteger count = new AtomicInteger();
+
+        Recorder(int capacity) {
+            this.samples = new long[Math.max(1, capacity)];
+        }
+
+        void record(long nanos) {
+            int index = count.getAndIncrement();
+            if (index < samples.length) {
+                samples[index] = nanos;
+            }
+        }
+
+        String summary() {
+            int n = Math.min(count.get(), samples.length);
+            if (n == 0) {
+                return "n/a";
+            }
+            long[] sorted = Arrays.copyOf(samples, n);
+            Arrays.sort(sorted);
+            return String.format("p50=%s p99=%s max=%s (n=%d)",
+                    format(sorted[(int) ((n - 1) * 0.50)]), format(sorted[(int) ((n - 1) * 0.99)]),
+                    format(sorted[n - 1]), n);
+        }
+
+        private static String format(long nanos) {
+            if (nanos >= 1_000_000_000L) {
+                return String.format("%.2fs", nanos / 1e9);
+            }
+            if (nanos >= 1_000_000L) {
+                return String.format("%.2fms", nanos / 1e6);
+            }
+            return String.format("%.1fus", nanos / 1e3);
+        }
+    }
+
+    /** End state of one storm. */
+    static final class Result {
+        final boolean completed;
+        final int humansVerified;
+        final long verified;
+        final long unfinishedClients;
+        final int limboOccupancy;
+        final int sessions;
+
+        Result(boolean completed, int humansVerified, long verified, long unfinishedClients, int limboOccupancy, int sessions) {
+            this.completed = completed;
+            this.humansVerified = humansVerified;
+            this.verified = verified;
+            this.unfinishedClients = unfinishedClients;
+            this.limboOccupancy = limboOccupancy;
+            this.sessions = sessions;
+        }
+    }
+
+    /** Command line options, all optional. */
+    static final class Options {
+        int bots = 10_000;
+        int humans = 200;
+        int rate = 1_000;
+        int threads = 4;
+        int botSubnets = 16;
+        int humanTypingMillis = 1_500;
+        int responseTimeout = 10;
+        int timeoutSeconds = 300;
+        int settleMillis = 3_000;
+        boolean keepRateLimit = true;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String name = args[i];
+                if ("--no-rate-limit".equals(name)) {
+                    options.keepRateLimit = false;
+                    continue;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + name);
+                }
+                int value = Integer.parseInt(args[++i]);
+                switch (name) {
+                    case "--bots": options.bots = value; break;
+                    case "--humans": options.humans = value; break;
+                    case "--rate": options.rate = value; break;
+                    case "--threads": options.threads = value; break;
+                    case "--bot-subnets": options.botSubnets = Math.max(1, value); break;
+                    case "--typing-ms": options.humanTypingMillis = value; break;
+                    case "--response-timeout": options.responseTimeout = value; break;
+                    case "--timeout": options.timeoutSeconds = value; break;
+                    case "--settle-ms": options.settleMillis = value; break;
+                    default: throw new IllegalArgumentException("Unknown option " + name);
+                }
+            }
+            return options;
+        }
+
+        Map<String, Object> overrides() {
+            Map<String, Object> overrides = BenchmarkConfig.steadyState();
+            // Back to the shipped challenge, with a short idle timeout so idle bots are cleared
+            overrides.remove("verification.attempts.max-attempts");
+            overrides.remove("verification.attempts.max-sessions");
+            overrides.remove("verification.movement.directions");
+            overrides.put("verification.movement.response-timeout", responseTimeout);
+            // Off by default until tuned; the storm still feeds every rotation to the analyzer
+            overrides.put("verification.movement.behavior-analysis.enabled", true);
+            overrides.put("limbo.max-players", Math.max(100, (bots + humans) / 4));
+            overrides.put("security.rate-limit.enabled", keepRateLimit);
+            return overrides;
+        }
+    }
+}
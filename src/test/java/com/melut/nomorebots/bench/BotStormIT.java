@@ -0,0 +1,27 @@
+package com.melut.nomorebots.bench;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** A small join storm through the fake proxy, run by failsafe under {@code mvn verify}. */
+class BotStormIT {
+    private static final int BOTS = 100;
+    private static final int HUMANS = 20;
+
+    @Test
+    void humansGetThroughAndNothingIsLeftBehind() throws Exception {
+        // The rate limiter would turn away most of the storm before it reaches limbo
+        BotStorm.Result result = BotStorm.run(BotStorm.Options.parse(new String[]{
+                "--bots", String.valueOf(BOTS), "--humans", String.valueOf(HUMANS), "--rate", "20",
+                "--response-timeout", "10", "--timeout", "120", "--no-rate-limit"}));
+
+        assertTrue(result.completed, "storm did not finish in time");
+        assertEquals(0, result.unfinishedClients);
+        assertEquals(HUMANS, result.humansVerified);
+        assertEquals(HUMANS, result.verified, "a bot passed verification");
+        assertEquals(0, result.limboOccupancy);
+        assertEquals(0, result.sessions);
+    }
+}
@@ -0,0 +1,94 @@
+package com.melut.nomorebots.bench;
+
+import com.velocitypowered.api.proxy.Player;
+
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal connected player: a name, an offline-mode UUID and a remote address. Messages are
+ * counted rather than rendered and a disconnect flips a flag and runs an optional hook.
+ */
+public final class FakePlayer {
+    private final String username;
+    private final UUID uuid;
+    private final InetSocketAddress address;
+    private final AtomicInteger messages = new AtomicInteger();
+    private final AtomicBoolean disconnected = new AtomicBoolean();
+    private final Player player;
+    private volatile Runnable disconnectHook;
+
+    public FakePlayer(String username, InetAddress address) {
+        this.username = username;
+        this.uuid = UUID.nameUUIDFromBytes(("OfflinePlayer:" + username).getBytes(StandardCharsets.UTF_8));
+        this.address = new InetSocketAddress(address, 25565);
+        this.player = FakeProxy.proxy(Player.class, this::handle);
+    }
+
+    /** Player number {@code index} with a unique 10.x.y.z address. */
+    public static FakePlayer numbered(String prefix, int index) {
+        return new FakePlayer(prefix + index, addressFor(index));
+    }
+
+    public static InetAddress addressFor(int index) {
+        byte[] octets = {10, (byte) (index >>> 16), (byte) (index >>> 8), (byte) index};
+        try {
+            return InetAddress.getByAddress(octets);
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Player player() {
+        return player;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public UUID getUniqueId() {
+        return uuid;
+    }
+
+    public int getMessageCount() {
+        return messages.get();
+    }
+
+    public boolean isDisconnected() {
+        return disconnected.get();
+    }
+
+    /** Runs once, on the thread that first disconnects the player. */
+    public void onDisconnect(Runnable hook) {
+        this.disconnectHook = hook;
+    }
+
+    private Object handle(Method method, Object[] args) {
+        switch (method.getName()) {
+            case "getUsername":
+                return username;
+            case "getUniqueId":
+                return uuid;
+            case "getRemoteAddress":
+                return address;
+            case "sendMessage":
+                messages.incrementAndGet();
+                return null;
+            case "disconnect":
+                Runnable hook = disconnectHook;
+                if (disconnected.compareAndSet(false, true) && hook != null) {
+                    hook.run();
+                }
+                return null;
+            default:
+                return FakeProxy.defaultValue(method.getReturnType());
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package com.melut.nomorebots.bench;
+
+import com.melut.nomorebots.NoMoreBotsPlugin;
+import com.velocitypowered.api.event.proxy.ProxyInitializeEvent;
+import com.velocitypowered.api.event.proxy.ProxyShutdownEvent;
+import com.velocitypowered.api.plugin.PluginContainer;
+import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.api.proxy.ProxyServer;
+import net.elytrium.limboapi.api.Limbo;
+import net.elytrium.limboapi.api.LimboFactory;
+import net.elytrium.limboapi.api.LimboSessionHandler;
+import net.elytrium.limboapi.api.player.LimboPlayer;
+import org.slf4j.LoggerFactory;
+import org.spongepowered.configurate.CommentedConfigurationNode;
+import org.spongepowered.configurate.yaml.YamlConfigurationLoader;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * In-process stand-in for a Velocity proxy with LimboAPI installed, built from dynamic proxies
+ * so it only has to implement what the plugin actually calls. Starts the real
+ * {@link NoMoreBotsPlugin} against a temporary data directory.
+ *
+ * <p>The scheduler runs tasks on a small daemon pool and tracks which ones are still live;
+ * limbo shards invoke the session handler's {@code onSpawn} synchronously.</p>
+ */
+public final class FakeProxy implements AutoCloseable {
+    private final Path dataDirectory;
+    private final ScheduledExecutorService executor;
+    private final Set<FakeTask> liveTasks = ConcurrentHashMap.newKeySet();
+    private final List<Object> listeners = Collections.synchronizedList(new ArrayList<>());
+    private final Map<UUID, Player> onlinePlayers = new ConcurrentHashMap<>();
+    private final Map<Player, LimboSessionHandler> limboSessions = new ConcurrentHashMap<>();
+    private final AtomicLong scheduledTasks = new AtomicLong();
+    private final AtomicLong teleports = new AtomicLong();
+    private final ProxyServer server;
+    private final NoMoreBotsPlugin plugin;
+
+    private FakeProxy(Path dataDirectory, int schedulerThreads) {
+        this.dataDirectory = dataDirectory;
+        this.executor = Executors.newScheduledThreadPool(schedulerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "FakeProxy-Scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = proxy(ProxyServer.class, this::handleServer);
+        this.plugin = new NoMoreBotsPlugin(server, LoggerFactory.getLogger("NoMoreBots"), dataDirectory, null);
+    }
+
+    /**
+     * Writes the bundled config.yml with the given overrides into a fresh temporary directory
+     * and initializes the plugin there.
+     *
+     * @param overrides dotted config paths, e.g. {@code "database.type"}, mapped to values
+     */
+    public static FakeProxy start(Map<String, Object> overrides, int schedulerThreads) throws IOException {
+        Path dataDirectory = Files.createTempDirectory("nomorebots-bench");
+        writeConfig(dataDirectory, overrides);
+        FakeProxy proxy = new FakeProxy(dataDirectory, schedulerThreads);
+        proxy.plugin.onProxyInitialization(new ProxyInitializeEvent());
+        return proxy;
+    }
+
+    public static void writeConfig(Path dataDirectory, Map<String, Object> overrides) throws IOException {
+        URL defaults = NoMoreBotsPlugin.class.getResource("/config.yml");
+        CommentedConfigurationNode root = YamlConfigurationLoader.builder().url(defaults).build().load();
+        for (Map.Entry<String, Object> entry : overrides.entrySet()) {
+            root.node((Object[]) entry.getKey().split("\\.")).set(entry.getValue());
+        }
+        YamlConfigurationLoader.builder().path(dataDirectory.resolve("config.yml")).build().save(root);
+    }
+
+    public NoMoreBotsPlugin getPlugin() {
+        return plugin;
+    }
+
+    public ProxyServer getServer() {
+        return server;
+    }
+
+    public Path getDataDirectory() {
+        return dataDirectory;
+    }
+
+    /** Listener instances the plugin registered, in registration order. */
+    @SuppressWarnings("unchecked")
+    public <T> T getListener(Class<T> type) {
+        synchronized (listeners) {
+            for (Object listener : listeners) {
+                if (type.isInstance(listener)) {
+                    return (T) listener;
+                }
+            }
+        }
+        throw new IllegalStateException("No listener of type " + type.getName());
+    }
+
+    public void addPlayer(Player player) {
+        onlinePlayers.put(player.getUniqueId(), player);
+    }
+
+    public void removePlayer(Player player) {
+        onlinePlayers.remove(player.getUniqueId());
+        LimboSessionHandler handler = limboSessions.remove(player);
+        if (handler != null) {
+            handler.onDisconnect();
+        }
+    }
+
+    /** The limbo session handler a player was spawned with, or null. */
+    public LimboSessionHandler getLimboSession(Player player) {
+        return limboSessions.get(player);
+    }
+
+    public int getLiveTaskCount() {
+        return liveTasks.size();
+    }
+
+    public long getScheduledTaskCount() {
+        return scheduledTasks.get();
+    }
+
+    public long getTeleportCount() {
+        return teleports.get();
+    }
+
+    @Override
+    public void close() {
+        plugin.onProxyShutdown(new ProxyShutdownEvent());
+        executor.shutdownNow();
+    }
+
+    // --- ProxyServer ---
+
+    private Object handleServer(Method method, Object[] args) {
+        switch (method.getName()) {
+            case "getScheduler":
+                return proxy(method.getReturnType(), (m, a) -> "buildTask".equals(m.getName())
+                        ? new FakeTask(a[1]).builder(m.getReturnType())
+                        : defaultValue(m.getReturnType()));
+            case "getEventManager":
+                return proxy(method.getReturnType(), (m, a) -> {
+                    if ("register".equals(m.getName()) && a.length == 2) {
+                        listeners.add(a[1]);
+                    }
+                    return defaultValue(m.getReturnType());
+                });
+            case "getCommandManager":
+                return proxy(method.getReturnType(), this::handleCommandManager);
+            case "getPluginManager":
+                return proxy(method.getReturnType(), (m, a) -> {
+                    if ("getPlugin".equals(m.getName()) && "limboapi".equals(a[0])) {
+                        LimboFactory factory = proxy(LimboFactory.class, this::handleLimboFactory);
+                        PluginContainer container = proxy(PluginContainer.class, (cm, ca) ->
+                                "getInstance".equals(cm.getName()) ? Optional.of(factory) : defaultValue(cm.getReturnType()));
+                        return Optional.of(container);
+                    }
+                    return defaultValue(m.getReturnType());
+                });
+            case "getPlayer":
+                if (args[0] instanceof UUID) {
+                    return Optional.ofNullable(onlinePlayers.get(args[0]));
+                }
+                for (Player player : onlinePlayers.values()) {
+                    if (player.getUsername().equalsIgnoreCase((String) args[0])) {
+                        return Optional.of(player);
+                    }
+                }
+                return Optional.empty();
+            case "getAllPlayers":
+                return new ArrayList<>(onlinePlayers.values());
+            case "getPlayerCount":
+                return onlinePlayers.size();
+            default:
+                return defaultValue(method.getReturnType());
+        }
+    }
+
+    private Object handleCommandManager(Method method, Object[] args) {
+        if ("metaBuilder".equals(method.getName())) {
+            Class<?> builderType = method.getReturnType();
+            Object[] holder = new Object[1];
+            holder[0] = proxy(builderType, (m, a) -> {
+                if ("build".equals(m.getName())) {
+                    return proxy(m.getReturnType(), (mm, aa) -> defaultValue(mm.getReturnType()));
+                }
+                return m.getReturnType().isAssignableFrom(builderType) ? holder[0] : defaultValue(m.getReturnType());
+            });
+            return holder[0];
+        }
+        return defaultValue(method.getReturnType());
+    }
+
+    // --- LimboAPI ---
+
+    private Object handleLimboFactory(Method method, Object[] args) {
+        if ("createLimbo".equals(method.getName())) {
+            Limbo[] holder = new Limbo[1];
+            holder[0] = proxy(Limbo.class, (m, a) -> {
+                if ("spawnPlayer".equals(m.getName())) {
+                    spawn(holder[0], (Player) a[0], (LimboSessionHandler) a[1]);
+                    return null;
+                }
+                return Limbo.class.isAssignableFrom(m.getReturnType()) ? holder[0] : defaultValue(m.getReturnType());
+            });
+            return holder[0];
+        }
+        return proxy(method.getReturnType(), (m, a) -> defaultValue(m.getReturnType()));
+    }
+
+    private void spawn(Limbo limbo, Player player, LimboSessionHandler handler) {
+        limboSessions.put(player, handler);
+        LimboPlayer limboPlayer = proxy(LimboPlayer.class, (m, a) -> {
+            if ("teleport".equals(m.getName())) {
+                teleports.incrementAndGet();
+            } else if ("getProxyPlayer".equals(m.getName())) {
+                return player;
+            }
+            return defaultValue(m.getReturnType());
+        });
+        handler.onSpawn(limbo, limboPlayer);
+    }
+
+    // --- Scheduler ---
+
+    /** One scheduled task and its builder state. */
+    private final class FakeTask {
+        private final Runnable body;
+        private long delayMillis;
+        private long repeatMillis;
+        private volatile ScheduledFuture<?> future;
+        private final Object handle;
+
+        @SuppressWarnings("unchecked")
+        FakeTask(Object task) {
+            Object[] self = new Object[1];
+            this.handle = proxy(scheduledTaskType(), (m, a) -> {
+                switch (m.getName()) {
+                    case "cancel":
+                        cancel();
+                        return null;
+                    case "plugin":
+                        return plugin;
+                    default:
+                        return defaultValue(m.getReturnType());
+                }
+            });
+            self[0] = handle;
+            if (task instanceof Runnable) {
+                this.body = (Runnable) task;
+            } else {
+                Consumer<Object> consumer = (Consumer<Object>) task;
+                this.body = () -> consumer.accept(self[0]);
+            }
+        }
+
+        Object builder(Class<?> builderType) {
+            Object[] holder = new Object[1];
+            holder[0] = proxy(builderType, (m, a) -> {
+                switch (m.getName()) {
+                    case "delay":
+                        delayMillis = toMillis(a);
+                        return holder[0];
+                    case "repeat":
+                        repeatMillis = toMillis(a);
+                        return holder[0];
+                    case "clearDelay":
+                        delayMillis = 0;
+                        return holder[0];
+                    case "clearRepeat":
+                        repeatMillis = 0;
+                        return holder[0];
+                    case "schedule":
+                        return schedule();
+                    default:
+                        return builderType.isAssignableFrom(m.getReturnType()) ? holder[0] : defaultValue(m.getReturnType());
+                }
+            });
+            return holder[0];
+        }
+
+        private Object schedule() {
+            scheduledTasks.incrementAndGet();
+            liveTasks.add(this);
+            if (repeatMillis > 0) {
+                future = executor.scheduleAtFixedRate(this::runSafely, delayMillis, repeatMillis, TimeUnit.MILLISECONDS);
+            } else {
+                future = executor.schedule(() -> {
+                    try {
+                        runSafely();
+                    } finally {
+                        liveTasks.remove(this);
+                    }
+                }, delayMillis, TimeUnit.MILLISECONDS);
+            }
+            return handle;
+        }
+
+        private void runSafely() {
+            try {
+                body.run();
+            } catch (RuntimeException e) {
+                LoggerFactory.getLogger("FakeProxy").error("Scheduled task failed", e);
+            }
+        }
+
+        private void cancel() {
+            ScheduledFuture<?> current = future;
+            if (current != null) {
+                current.cancel(false);
+            }
+            liveTasks.remove(this);
+        }
+    }
+
+    private static Class<?> scheduledTaskType() {
+        return com.velocitypowered.api.scheduler.ScheduledTask.class;
+    }
+
+    private static long toMillis(Object[] args) {
+        if (args.length == 1) {
+            return ((Duration) args[0]).toMillis();
+        }
+        return ((TimeUnit) args[1]).toMillis((Long) args[0]);
+    }
+
+    // --- Dynamic proxy helpers ---
+
+    /** Handler for the methods a fake cares about; everything else answers a default value. */
+    public interface Handler {
+        Object invoke(Method method, Object[] args) throws Throwable;
+    }
+
+    public static <T> T proxy(Class<T> type, Handler handler) {
+        InvocationHandler invocation = (self, method, args) -> {
+            Object[] safeArgs = args != null ? args : new Object[0];
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return self == safeArgs[0];
+                    case "hashCode":
+                        return System.identityHashCode(self);
+                    default:
+                        return type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(self));
+                }
+            }
+            return handler.invoke(method, safeArgs);
+        };
+        return type.cast(Proxy.newProxyInstance(FakeProxy.class.getClassLoader(), new Class<?>[]{type}, invocation));
+    }
+
+    static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return Optional.class == type ? Optional.empty() : null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == void.class) {
+            return null;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == float.class) {
+            return 0f;
+        }
+        if (type == double.class) {
+            return 0d;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        return 0;
+    }
+}
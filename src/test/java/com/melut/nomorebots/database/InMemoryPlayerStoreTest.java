@@ -0,0 +1,26 @@
+package com.melut.nomorebots.database;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+class InMemoryPlayerStoreTest extends PlayerStoreConformanceTest {
+    private final AtomicLong clockOffset = new AtomicLong();
+
+    @Override
+    protected PlayerStore createStore() {
+        return new InMemoryPlayerStore(() -> System.currentTimeMillis() + clockOffset.get());
+    }
+
+    // Rewrites the row with the clock turned back
+    @Override
+    protected void age(UUID uuid, int days) throws Exception {
+        clockOffset.set(-TimeUnit.DAYS.toMillis(days));
+        try {
+            store.upsertBatch(List.of(store.load(uuid).orElseThrow()));
+        } finally {
+            clockOffset.set(0);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.melut.nomorebots.database;
+
+import org.slf4j.LoggerFactory;
+
+import java.util.UUID;
+
+/** Runs against an embedded H2 database in MySQL mode, which accepts the MySQL dialect used here. */
+class MySqlPlayerStoreTest extends PlayerStoreConformanceTest {
+
+    @Override
+    protected PlayerStore createStore() {
+        String url = "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        return new MySqlPlayerStore(LoggerFactory.getLogger(MySqlPlayerStoreTest.class), url, "sa", "", 2);
+    }
+
+    @Override
+    protected void age(UUID uuid, int days) throws Exception {
+        ageRow((JdbcPlayerStore) store, uuid, days);
+    }
+}
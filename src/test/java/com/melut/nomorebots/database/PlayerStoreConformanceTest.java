@@ -0,0 +1,331 @@
+package com.melut.nomorebots.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Behaviour every {@link PlayerStore} must share, run once per backend by the subclasses.
+ * Timestamps are whole seconds so backends that drop fractions still compare equal.
+ */
+abstract class PlayerStoreConformanceTest {
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    // Far below what every backend manages on a laptop, so a loaded CI machine still passes
+    private static final int THROUGHPUT_ROWS = 4_000;
+    private static final int THROUGHPUT_BATCH = 100;
+    private static final int THROUGHPUT_LOADS = 8_000;
+    private static final double MIN_OPS_PER_SECOND = 1_000;
+
+    protected PlayerStore store;
+
+    /** A fresh, empty store; {@link PlayerStore#init()} is called by the test. */
+    protected abstract PlayerStore createStore() throws Exception;
+
+    /** Makes the row look like it was last written the given number of days ago. */
+    protected abstract void age(UUID uuid, int days) throws Exception;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = createStore();
+        store.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    /** {@link #age} for the SQL backends, in each backend's own date arithmetic. */
+    static void ageRow(JdbcPlayerStore store, UUID uuid, int days) throws Exception {
+        store.write(conn -> {
+            String sql = "UPDATE " + JdbcPlayerStore.TABLE + " SET updated_at = " + store.daysAgoSql(days) + " WHERE uuid = ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, uuid.toString());
+                assertEquals(1, pstmt.executeUpdate());
+            }
+            return null;
+        });
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000 * 1000;
+    }
+
+    private static PlayerData player(String username) {
+        return new PlayerData(UUID.randomUUID(), username, false, 0, 0, null, false);
+    }
+
+    @Test
+    void createInsertsOnlyOnce() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        assertTrue(store.create(uuid, "Steve"));
+        assertFalse(store.create(uuid, "Alex"));
+
+        PlayerData data = store.load(uuid).orElseThrow();
+        assertEquals(uuid, data.getUuid());
+        assertEquals("Steve", data.getUsername());
+        assertFalse(data.isVerified());
+        assertEquals(0, data.getTotalAttempts());
+        assertNull(data.getTimeoutUntil());
+        assertNull(data.getVerifiedUntil());
+    }
+
+    @Test
+    void loadOfUnknownUuidIsEmpty() throws Exception {
+        assertEquals(Optional.empty(), store.load(UUID.randomUUID()));
+    }
+
+    @Test
+    void upsertReplacesEveryColumn() throws Exception {
+        PlayerData data = player("Steve");
+        store.create(data.getUuid(), data.getUsername());
+
+        long now = now();
+        data.setUsername("Steve2");
+        data.setVerified(true);
+        data.incrementTotalAttempts();
+        data.incrementTotalAttempts();
+        data.incrementFailedAttempts();
+        data.setTimeoutUntil(new Timestamp(now + HOUR));
+        data.setBypassGranted(true);
+        data.setLastIP("10.0.0.1");
+        data.setVerifiedUntil(new Timestamp(now + 2 * HOUR));
+        store.upsertBatch(List.of(data));
+
+        PlayerData loaded = store.load(data.getUuid()).orElseThrow();
+        assertEquals("Steve2", loaded.getUsername());
+        assertTrue(loaded.isVerified());
+        assertEquals(2, loaded.getTotalAttempts());
+        assertEquals(1, loaded.getFailedAttempts());
+        assertEquals(now + HOUR, loaded.getTimeoutUntil().getTime());
+        assertTrue(loaded.isBypassGranted());
+        assertEquals("10.0.0.1", loaded.getLastIP());
+        assertEquals(now + 2 * HOUR, loaded.getVerifiedUntil().getTime());
+
+        // Clearing nullable columns goes through as well
+        data.setTimeoutUntil(null);
+        data.setVerifiedUntil(null);
+        store.upsertBatch(List.of(data));
+        loaded = store.load(data.getUuid()).orElseThrow();
+        assertNull(loaded.getTimeoutUntil());
+        assertNull(loaded.getVerifiedUntil());
+    }
+
+    @Test
+    void batchUpsertInsertsAndUpdates() throws Exception {
+        PlayerData existing = player("Existing");
+        store.create(existing.getUuid(), existing.getUsername());
+        existing.incrementTotalAttempts();
+
+        List<PlayerData> batch = new ArrayList<>();
+        batch.add(existing);
+        for (int i = 0; i < 50; i++) {
+            PlayerData data = player("Bot" + i);
+            data.incrementFailedAttempts();
+            batch.add(data);
+        }
+        store.upsertBatch(batch);
+
+        for (PlayerData data : batch) {
+            PlayerData loaded = store.load(data.getUuid()).orElseThrow();
+            assertEquals(data.getUsername(), loaded.getUsername());
+            assertEquals(data.getTotalAttempts(), loaded.getTotalAttempts());
+            assertEquals(data.getFailedAttempts(), loaded.getFailedAttempts());
+        }
+        assertEquals(51, store.count(now()).getTotal());
+    }
+
+    @Test
+    void existsVerifiedByUsernameAndIp() throws Exception {
+        long now = now();
+        PlayerData active = player("Active");
+        active.setLastIP("10.0.0.1");
+        active.setVerifiedUntil(new Timestamp(now + HOUR));
+        PlayerData expired = player("Expired");
+        expired.setLastIP("10.0.0.2");
+        expired.setVerifiedUntil(new Timestamp(now - HOUR));
+        store.upsertBatch(List.of(active, expired));
+
+        assertTrue(store.isUserVerified("Active"));
+        assertTrue(store.isIPVerified("10.0.0.1"));
+        assertFalse(store.isUserVerified("Expired"));
+        assertFalse(store.isIPVerified("10.0.0.2"));
+        assertFalse(store.isUserVerified("Nobody"));
+        assertFalse(store.isIPVerified("10.0.0.3"));
+    }
+
+    @Test
+    void scansVisitOnlyActiveRowsByUsername() throws Exception {
+        long now = now();
+        PlayerData verified = player("Verified");
+        verified.setLastIP("10.0.0.1");
+        verified.setVerifiedUntil(new Timestamp(now + HOUR));
+        PlayerData timedOut = player("TimedOut");
+        timedOut.setTimeoutUntil(new Timestamp(now + HOUR));
+        PlayerData stale = player("Stale");
+        stale.setVerifiedUntil(new Timestamp(now - HOUR));
+        stale.setTimeoutUntil(new Timestamp(now - HOUR));
+        store.upsertBatch(List.of(verified, timedOut, stale));
+
+        Map<String, Long> seen = new HashMap<>();
+        store.scanVerified(now, (username, ip, until) -> {
+            assertEquals("10.0.0.1", ip);
+            seen.put(username, until);
+        });
+        assertEquals(Map.of("Verified", now + HOUR), seen);
+
+        seen.clear();
+        store.scanTimedOut(now, (username, ip, until) -> seen.put(username, until));
+        assertEquals(Map.of("TimedOut", now + HOUR), seen);
+
+        PlayerCounts counts = store.count(now);
+        assertEquals(3, counts.getTotal());
+        assertEquals(1, counts.getVerified());
+        assertEquals(1, counts.getTimedOut());
+    }
+
+    @Test
+    void pruneInactiveDeletesOnlyOldUnverifiedRows() throws Exception {
+        long now = now();
+        PlayerData inactive = player("Inactive");
+        PlayerData expiredTimeout = player("ExpiredTimeout");
+        expiredTimeout.setTimeoutUntil(new Timestamp(now - HOUR));
+        PlayerData verified = player("Verified");
+        verified.setVerified(true);
+        PlayerData cooldown = player("Cooldown");
+        cooldown.setVerifiedUntil(new Timestamp(now - HOUR));
+        PlayerData bypass = player("Bypass");
+        bypass.setBypassGranted(true);
+        PlayerData timedOut = player("TimedOut");
+        timedOut.setTimeoutUntil(new Timestamp(now + HOUR));
+        PlayerData recent = player("Recent");
+
+        List<PlayerData> all = List.of(inactive, expiredTimeout, verified, cooldown, bypass, timedOut, recent);
+        store.upsertBatch(all);
+        for (PlayerData data : all) {
+            if (data != recent) {
+                age(data.getUuid(), 40);
+            }
+        }
+
+        Set<UUID> deleted = new HashSet<>();
+        UUID after = null;
+        do {
+            PlayerStore.PruneBatch batch = store.pruneInactive(after, 30, now, 2);
+            deleted.addAll(batch.deleted);
+            after = batch.next;
+        } while (after != null);
+
+        assertEquals(Set.of(inactive.getUuid(), expiredTimeout.getUuid()), deleted);
+        for (PlayerData data : all) {
+            assertEquals(!deleted.contains(data.getUuid()), store.load(data.getUuid()).isPresent(), data.getUsername());
+        }
+    }
+
+    @Test
+    void pruneInactiveWalksKeysInBatches() throws Exception {
+        List<PlayerData> rows = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            rows.add(player("Old" + i));
+        }
+        store.upsertBatch(rows);
+        for (PlayerData data : rows) {
+            age(data.getUuid(), 40);
+        }
+
+        List<UUID> deleted = new ArrayList<>();
+        int batches = 0;
+        UUID after = null;
+        do {
+            PlayerStore.PruneBatch batch = store.pruneInactive(after, 30, now(), 2);
+            assertTrue(batch.deleted.size() <= 2);
+            for (UUID uuid : batch.deleted) {
+                // Keys come back in ascending text order and are never revisited
+                assertTrue(after == null || uuid.toString().compareTo(after.toString()) > 0);
+            }
+            deleted.addAll(batch.deleted);
+            after = batch.next;
+            batches++;
+        } while (after != null);
+
+        assertEquals(3, batches);
+        assertEquals(5, new HashSet<>(deleted).size());
+        assertEquals(0, store.count(now()).getTotal());
+    }
+
+    @Test
+    void batchedWritesKeepUpWithConcurrentLoads() throws Exception {
+        List<PlayerData> rows = new ArrayList<>(THROUGHPUT_ROWS);
+        for (int i = 0; i < THROUGHPUT_ROWS; i++) {
+            PlayerData data = player("Player" + i);
+            data.setLastIP("10.0." + (i >>> 8 & 0xFF) + "." + (i & 0xFF));
+            rows.add(data);
+        }
+        // Half the rows exist up front so the readers have something to find from the start
+        List<PlayerData> existing = rows.subList(0, THROUGHPUT_ROWS / 2);
+        upsertInBatches(existing);
+
+        // One writer, as the write-behind queue runs, and as many readers as the store serves
+        int readers = Math.max(1, Math.min(4, store.getReadConnections()));
+        ExecutorService pool = Executors.newFixedThreadPool(readers);
+        try {
+            long start = System.nanoTime();
+            List<Future<Integer>> loads = new ArrayList<>();
+            for (int r = 0; r < readers; r++) {
+                loads.add(pool.submit(() -> {
+                    int found = 0;
+                    for (int i = 0; i < THROUGHPUT_LOADS / readers; i++) {
+                        PlayerData expected = existing.get(ThreadLocalRandom.current().nextInt(existing.size()));
+                        Optional<PlayerData> loaded = store.load(expected.getUuid());
+                        if (loaded.isPresent() && expected.getUsername().equals(loaded.get().getUsername())) {
+                            found++;
+                        }
+                    }
+                    return found;
+                }));
+            }
+            upsertInBatches(rows.subList(THROUGHPUT_ROWS / 2, THROUGHPUT_ROWS));
+            int found = 0;
+            for (Future<Integer> load : loads) {
+                found += load.get(60, TimeUnit.SECONDS);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            int operations = THROUGHPUT_ROWS / 2 + readers * (THROUGHPUT_LOADS / readers);
+            assertEquals(readers * (THROUGHPUT_LOADS / readers), found);
+            assertTrue(operations / seconds >= MIN_OPS_PER_SECOND,
+                    String.format("%s managed %.0f ops/s", store.getName(), operations / seconds));
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(THROUGHPUT_ROWS, store.count(now()).getTotal());
+    }
+
+    private void upsertInBatches(List<PlayerData> rows) throws Exception {
+        for (int i = 0; i < rows.size(); i += THROUGHPUT_BATCH) {
+            store.upsertBatch(rows.subList(i, Math.min(rows.size(), i + THROUGHPUT_BATCH)));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.melut.nomorebots.database;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class SQLitePlayerStoreTest extends PlayerStoreConformanceTest {
+    @TempDir
+    Path dataDirectory;
+
+    @Override
+    protected PlayerStore createStore() {
+        return new SQLitePlayerStore(LoggerFactory.getLogger(SQLitePlayerStoreTest.class),
+                dataDirectory.resolve("players.db").toFile(), true, "NORMAL", 5000, 2);
+    }
+
+    @Override
+    protected void age(UUID uuid, int days) throws Exception {
+        ageRow((JdbcPlayerStore) store, uuid, days);
+    }
+
+    @Test
+    void hotQueriesNeverScanTheTable() throws Exception {
+        for (String sql : JdbcPlayerStore.HOT_QUERIES) {
+            List<String> plan = queryPlan((JdbcPlayerStore) store, sql);
+            assertFalse(plan.isEmpty(), sql);
+            for (String step : plan) {
+                assertFalse(step.startsWith("SCAN"), () -> "Table scan (" + step + ") in: " + sql);
+            }
+        }
+    }
+
+    @Test
+    void freshFileUsesIncrementalVacuum() throws Exception {
+        long mode = ((JdbcPlayerStore) store).read(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement("PRAGMA auto_vacuum");
+                 ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : -1L;
+            }
+        });
+        assertEquals(2L, mode);
+    }
+
+    /** The detail column of every step SQLite plans for the query. */
+    static List<String> queryPlan(JdbcPlayerStore store, String sql) throws Exception {
+        return store.read(conn -> {
+            List<String> steps = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql);
+                 ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    steps.add(rs.getString("detail"));
+                }
+            }
+            return steps;
+        });
+    }
+}
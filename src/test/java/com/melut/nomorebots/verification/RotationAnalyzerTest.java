@@ -0,0 +1,100 @@
+package com.melut.nomorebots.verification;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Scores of rotation streams shaped like the ones clients send: vanilla players report their
+ * rotation once per 50ms tick, and the proxy sees that cadence with a little network jitter.
+ */
+class RotationAnalyzerTest {
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final double FAIL_SCORE = 0.8;
+    private static final double PASS_SCORE = -0.5;
+
+    @Test
+    void tickLockedTimingAloneIsNotBotLike() {
+        RotationAnalyzer analyzer = new RotationAnalyzer();
+        // Standing still on the exact tick: one interval bucket, no movement
+        for (int i = 0; i <= RotationAnalyzer.WINDOW; i++) {
+            analyzer.record(0f, 0f, i * TICK_NANOS);
+        }
+        assertEquals(0.0, analyzer.getTimingEntropy(), 1e-9);
+        assertEquals(0.0, analyzer.score(), 1e-9);
+    }
+
+    @Test
+    void humanAimOnTheTickScoresHuman() {
+        Random random = new Random(1);
+        RotationAnalyzer analyzer = new RotationAnalyzer();
+        float yaw = 0f;
+        float pitch = 0f;
+        long nanos = 0;
+        for (int i = 0; i <= RotationAnalyzer.WINDOW; i++) {
+            // Drifting toward a target with a hand-sized wobble on both axes
+            yaw += 3f + (float) random.nextGaussian();
+            pitch += (float) random.nextGaussian() * 0.5f;
+            nanos += TICK_NANOS + (long) (random.nextGaussian() * TimeUnit.MILLISECONDS.toNanos(1));
+            analyzer.record(yaw, pitch, nanos);
+        }
+        assertTrue(analyzer.getTimingEntropy() < 2.0, "tick cadence should stay low entropy");
+        assertEquals(-0.4, analyzer.score(), 1e-9);
+    }
+
+    @Test
+    void humanSingleAxisTurnsStayBelowTheFailScore() {
+        Random random = new Random(2);
+        RotationAnalyzer analyzer = new RotationAnalyzer();
+        float yaw = 0f;
+        long nanos = 0;
+        for (int i = 0; i <= RotationAnalyzer.WINDOW; i++) {
+            // Pitch never changes; two quick turnarounds of about 180 degrees, slow tracking otherwise
+            float step = (i % 32 < 4) ? 40f + random.nextFloat() * 10f : 1f + random.nextFloat() * 2f;
+            yaw += step;
+            nanos += TICK_NANOS;
+            analyzer.record(yaw, 10f, nanos);
+        }
+        double score = analyzer.score();
+        assertTrue(analyzer.getSnapRatio() > 0, "fast single-axis turns count as snaps");
+        assertTrue(score < FAIL_SCORE, "score " + score);
+        assertTrue(score <= 0, "score " + score);
+    }
+
+    @Test
+    void randomSpinningFails() {
+        Random random = new Random(3);
+        RotationAnalyzer analyzer = new RotationAnalyzer();
+        for (int i = 0; i <= RotationAnalyzer.WINDOW; i++) {
+            analyzer.record(random.nextFloat() * 360f - 180f, random.nextFloat() * 180f - 90f, i * TICK_NANOS);
+        }
+        assertTrue(analyzer.getFlickRatio() >= 0.5, "ratio " + analyzer.getFlickRatio());
+        assertTrue(analyzer.score() >= FAIL_SCORE, "score " + analyzer.score());
+    }
+
+    @Test
+    void scriptedSnapsFail() {
+        RotationAnalyzer analyzer = new RotationAnalyzer();
+        for (int i = 0; i <= RotationAnalyzer.WINDOW; i++) {
+            analyzer.record(i * 45f, 0f, i * TICK_NANOS);
+        }
+        assertEquals(1.0, analyzer.getSnapRatio(), 1e-9);
+        assertEquals(1.0, analyzer.score(), 1e-9);
+    }
+
+    @Test
+    void interpolatedRotationIsNeverFastTracked() {
+        RotationAnalyzer analyzer = new RotationAnalyzer();
+        for (int i = 0; i <= RotationAnalyzer.WINDOW; i++) {
+            analyzer.record(i * 2f, i * 0.5f, i * TICK_NANOS);
+        }
+        assertEquals(0.0, analyzer.getJitter(), 1e-6);
+        double score = analyzer.score();
+        assertEquals(0.4, score, 1e-9);
+        assertTrue(score > PASS_SCORE);
+    }
+}